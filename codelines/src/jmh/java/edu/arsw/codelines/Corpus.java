@@ -0,0 +1,141 @@
+package edu.arsw.codelines;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * A synthetic tree of Java-like sources shared by the benchmarks.
+ * <p>
+ * The files are generated once per trial in a temporary directory, spread over a
+ * few nested packages so the walk has directories to descend into. Their size and
+ * the share of comment lines are benchmark parameters; the content comes from a
+ * seeded random generator, so every run measures the same bytes. String literals
+ * holding comment markers are mixed in to exercise the tokenizer.
+ *
+ * @author Andres Chavarro
+ * @version 1.0
+ * @since 2025-06-12
+ */
+@State(Scope.Benchmark)
+public class Corpus {
+
+    /** The number of generated files. */
+    @Param({ "64" })
+    public int files;
+
+    /** The approximate size of each file, in kilobytes. */
+    @Param({ "4", "256" })
+    public int kilobytesPerFile;
+
+    /** The share of non-blank lines that are comments. */
+    @Param({ "0.1", "0.5" })
+    public double commentDensity;
+
+    private Path root;
+    private final List<String> paths = new ArrayList<>();
+    private long bytes;
+
+    /**
+     * Writes the corpus to a new temporary directory.
+     *
+     * @throws IOException If the files cannot be written.
+     */
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        root = Files.createTempDirectory("codelines-corpus");
+        Random random = new Random(42);
+
+        for (int i = 0; i < files; i++) {
+            Path directory = Files.createDirectories(root.resolve("pkg" + i % 8).resolve("sub" + i % 3));
+            Path file = directory.resolve("Source" + i + ".java");
+            byte[] content = source(random, kilobytesPerFile * 1024).getBytes(StandardCharsets.UTF_8);
+            Files.write(file, content);
+            paths.add(file.toString());
+            bytes += content.length;
+        }
+    }
+
+    /**
+     * Deletes the corpus.
+     *
+     * @throws IOException If a file cannot be deleted.
+     */
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            for (Path path : walk.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+        paths.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Returns the directory that holds the corpus.
+     *
+     * @return The root of the generated tree.
+     */
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Returns the paths of every generated file.
+     *
+     * @return The files of the corpus, in generation order.
+     */
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    /**
+     * Returns the total size of the corpus.
+     *
+     * @return The number of bytes written.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    private String source(Random random, int size) {
+        StringBuilder source = new StringBuilder(size + 128);
+        source.append("package bench;\n\npublic class Generated {\n");
+        int n = 0;
+
+        while (source.length() < size) {
+            n++;
+            if (random.nextInt(10) == 0) {
+                source.append('\n');
+            } else if (random.nextDouble() < commentDensity) {
+                if (random.nextInt(4) == 0) {
+                    source.append("    /*\n     * Block comment ").append(n).append(".\n     */\n");
+                } else {
+                    source.append("    // Line comment number ").append(n).append('\n');
+                }
+            } else if (random.nextInt(8) == 0) {
+                source.append("    String url").append(n).append(" = \"http://example.com/").append(n)
+                        .append("\"; // trailing\n");
+            } else {
+                source.append("    int value").append(n).append(" = compute(").append(n).append(", ")
+                        .append(random.nextInt(1000)).append(");\n");
+            }
+        }
+
+        return source.append("}\n").toString();
+    }
+}
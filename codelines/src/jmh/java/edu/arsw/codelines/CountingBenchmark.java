@@ -0,0 +1,122 @@
+package edu.arsw.codelines;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-file counting methods on a single thread.
+ * <p>
+ * Every operation counts the whole {@link Corpus} once, so the score is corpus
+ * passes per second and the {@link Throughput} counters give MB/s and files/s. The
+ * files stay in the page cache between operations, so the results show the cost
+ * of decoding and scanning rather than of the disk.
+ *
+ * @author Andres Chavarro
+ * @version 1.0
+ * @since 2025-06-12
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CountingBenchmark {
+
+    /**
+     * Counts physical lines by decoding each file into Strings.
+     *
+     * @param corpus     The files to count.
+     * @param throughput The MB/s and files/s counters.
+     * @return The sum of the counts, so the work cannot be optimized away.
+     * @throws IOException If a file cannot be read.
+     */
+    @Benchmark
+    public long physical(Corpus corpus, Throughput throughput) throws IOException {
+        long lines = 0;
+        for (String file : corpus.getPaths()) {
+            lines += CountLines.physical(file);
+        }
+        throughput.add(corpus.getPaths().size(), corpus.getBytes());
+        return lines;
+    }
+
+    /**
+     * Counts logical lines with the language-aware scanner.
+     *
+     * @param corpus     The files to count.
+     * @param throughput The MB/s and files/s counters.
+     * @return The sum of the counts, so the work cannot be optimized away.
+     * @throws IOException If a file cannot be read.
+     */
+    @Benchmark
+    public long logical(Corpus corpus, Throughput throughput) throws IOException {
+        long lines = 0;
+        for (String file : corpus.getPaths()) {
+            lines += CountLines.logical(file);
+        }
+        throughput.add(corpus.getPaths().size(), corpus.getBytes());
+        return lines;
+    }
+
+    /**
+     * Counts every metric in a single buffered read.
+     *
+     * @param corpus     The files to count.
+     * @param throughput The MB/s and files/s counters.
+     * @return The sum of the counts, so the work cannot be optimized away.
+     * @throws IOException If a file cannot be read.
+     */
+    @Benchmark
+    public long all(Corpus corpus, Throughput throughput) throws IOException {
+        long lines = 0;
+        for (String file : corpus.getPaths()) {
+            lines += CountLines.all(file).comment();
+        }
+        throughput.add(corpus.getPaths().size(), corpus.getBytes());
+        return lines;
+    }
+
+    /**
+     * Counts physical lines on the bytes of memory-mapped files.
+     *
+     * @param corpus     The files to count.
+     * @param throughput The MB/s and files/s counters.
+     * @return The sum of the counts, so the work cannot be optimized away.
+     * @throws IOException If a file cannot be read.
+     */
+    @Benchmark
+    public long mappedPhysical(Corpus corpus, Throughput throughput) throws IOException {
+        long lines = 0;
+        for (String file : corpus.getPaths()) {
+            lines += MappedCounter.physical(file);
+        }
+        throughput.add(corpus.getPaths().size(), corpus.getBytes());
+        return lines;
+    }
+
+    /**
+     * Counts every metric on the bytes of memory-mapped files.
+     *
+     * @param corpus     The files to count.
+     * @param throughput The MB/s and files/s counters.
+     * @return The sum of the counts, so the work cannot be optimized away.
+     * @throws IOException If a file cannot be read.
+     */
+    @Benchmark
+    public long mappedAll(Corpus corpus, Throughput throughput) throws IOException {
+        long lines = 0;
+        for (String file : corpus.getPaths()) {
+            lines += MappedCounter.count(file).comment();
+        }
+        throughput.add(corpus.getPaths().size(), corpus.getBytes());
+        return lines;
+    }
+}
@@ -0,0 +1,29 @@
+package edu.arsw.codelines;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * The entry point as it was before the CLI stopped starting a Spring context.
+ * <p>
+ * It is only kept as the baseline of {@link StartupBenchmark}: it boots the
+ * application context and then runs the same command line as
+ * {@link CodelinesApplication}.
+ *
+ * @author Andres Chavarro
+ * @version 1.0
+ * @since 2025-06-12
+ */
+@SpringBootApplication
+public class SpringStartup {
+
+    /**
+     * Starts a Spring context and then runs the command line tool.
+     *
+     * @param args The same arguments accepted by {@link CodelinesApplication#main}.
+     */
+    public static void main(String[] args) {
+        SpringApplication.run(SpringStartup.class, args);
+        CodelinesApplication.main(args);
+    }
+}
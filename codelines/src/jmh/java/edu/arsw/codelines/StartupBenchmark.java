@@ -0,0 +1,161 @@
+package edu.arsw.codelines;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Measures the wall-clock time of one complete command line invocation.
+ * <p>
+ * Every operation starts a new JVM that counts the physical lines of a small
+ * file, as a build pipeline would. Three launch modes are compared:
+ * <ul>
+ * <li>spring: the former entry point, which boots a Spring context first.</li>
+ * <li>lean: the plain {@link CodelinesApplication} entry point.</li>
+ * <li>appcds: the lean entry point with an AppCDS archive of the classes it loads,
+ * created once per trial.</li>
+ * </ul>
+ * Class directories are packed into jars first, since AppCDS only archives classes
+ * loaded from jars, and every mode uses the same packed class path.
+ *
+ * @author Andres Chavarro
+ * @version 1.0
+ * @since 2025-06-12
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    /** How the tool is launched. */
+    @Param({ "spring", "lean", "appcds" })
+    public String launch;
+
+    private Path workDirectory;
+    private List<String> command;
+
+    /**
+     * Writes the input file and, for the AppCDS mode, dumps the class archive.
+     *
+     * @throws IOException If the files cannot be written or the JVM cannot be started.
+     * @throws InterruptedException If the thread is interrupted while waiting for the dump.
+     */
+    @Setup(Level.Trial)
+    public void prepare() throws IOException, InterruptedException {
+        workDirectory = Files.createTempDirectory("codelines-startup");
+        Path input = Files.writeString(workDirectory.resolve("Input.java"), "class Input {\n}\n");
+        Path archive = workDirectory.resolve("codelines.jsa");
+
+        List<String> jvm = new ArrayList<>();
+        jvm.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        jvm.add("-cp");
+        jvm.add(packClassPath(System.getProperty("java.class.path")));
+
+        String mainClass = "spring".equals(launch) ? SpringStartup.class.getName()
+                : CodelinesApplication.class.getName();
+        List<String> arguments = List.of(mainClass, "phy", input.toString());
+
+        if ("appcds".equals(launch)) {
+            List<String> dump = new ArrayList<>(jvm);
+            dump.add("-XX:ArchiveClassesAtExit=" + archive);
+            dump.addAll(arguments);
+            run(dump);
+            jvm.add("-XX:SharedArchiveFile=" + archive);
+        }
+
+        command = new ArrayList<>(jvm);
+        command.addAll(arguments);
+    }
+
+    /**
+     * Deletes the input file, the packed jars and the archive.
+     *
+     * @throws IOException If a file cannot be deleted.
+     */
+    @TearDown(Level.Trial)
+    public void cleanUp() throws IOException {
+        try (Stream<Path> files = Files.walk(workDirectory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Runs the tool once in a new JVM and waits for it to exit.
+     *
+     * @return The exit code of the process.
+     * @throws IOException If the JVM cannot be started.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    @Benchmark
+    public int invoke() throws IOException, InterruptedException {
+        return run(command);
+    }
+
+    /**
+     * Replaces every directory of a class path with a jar of its content.
+     */
+    private String packClassPath(String classPath) throws IOException {
+        List<String> entries = new ArrayList<>();
+
+        for (String entry : classPath.split(File.pathSeparator)) {
+            Path path = Paths.get(entry);
+            if (!Files.isDirectory(path)) {
+                entries.add(entry);
+                continue;
+            }
+
+            Path jar = workDirectory.resolve("classes" + entries.size() + ".jar");
+            try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar));
+                    Stream<Path> files = Files.walk(path)) {
+                for (Path file : files.filter(Files::isRegularFile).toList()) {
+                    out.putNextEntry(new JarEntry(path.relativize(file).toString().replace(File.separatorChar, '/')));
+                    Files.copy(file, out);
+                    out.closeEntry();
+                }
+            }
+            entries.add(jar.toString());
+        }
+
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static int run(List<String> command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IllegalStateException("The tool exited with code " + exitCode + ": " + command);
+        }
+        return exitCode;
+    }
+}
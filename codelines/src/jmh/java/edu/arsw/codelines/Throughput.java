@@ -0,0 +1,49 @@
+package edu.arsw.codelines;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Secondary results reported next to the score of a benchmark.
+ * <p>
+ * JMH divides these counters by the measured time, so a benchmark that adds the
+ * size of what it read to {@link #megabytes} and the number of files to
+ * {@link #files} gets its throughput in MB/s and files/s.
+ *
+ * @author Andres Chavarro
+ * @version 1.0
+ * @since 2025-06-12
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class Throughput {
+
+    /** The megabytes (10^6 bytes) processed. */
+    public double megabytes;
+
+    /** The files processed. */
+    public long files;
+
+    /**
+     * Resets the counters before every iteration.
+     */
+    @Setup(Level.Iteration)
+    public void reset() {
+        megabytes = 0;
+        files = 0;
+    }
+
+    /**
+     * Records a pass over a number of files.
+     *
+     * @param fileCount The number of files.
+     * @param bytes     Their total size in bytes.
+     */
+    public void add(int fileCount, long bytes) {
+        files += fileCount;
+        megabytes += bytes / 1e6;
+    }
+}
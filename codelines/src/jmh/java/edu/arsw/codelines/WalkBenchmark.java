@@ -0,0 +1,109 @@
+package edu.arsw.codelines;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the directory walk on its own and the full parallel scan.
+ * <p>
+ * {@link #findFiles} and {@link #parallelWalk} only list and match the
+ * {@link Corpus} tree, so they report files/s of discovery. {@link #parallelAll}
+ * also counts every metric of every file and reports MB/s as well.
+ *
+ * @author Andres Chavarro
+ * @version 1.0
+ * @since 2025-06-12
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WalkBenchmark {
+
+    /** The number of worker threads, 0 for one per core. */
+    @Param({ "0" })
+    public int threads;
+
+    private ParallelCounter counter;
+    private GlobFilter filter;
+
+    /**
+     * Creates the pool used by the parallel benchmarks.
+     */
+    @Setup(Level.Trial)
+    public void start() {
+        counter = threads > 0 ? new ParallelCounter(threads) : new ParallelCounter();
+        filter = new GlobFilter(List.of("*.java"), List.of());
+    }
+
+    /**
+     * Shuts the pool down.
+     */
+    @TearDown(Level.Trial)
+    public void stop() {
+        counter.close();
+    }
+
+    /**
+     * Lists the matching files with the sequential file tree walk.
+     *
+     * @param corpus     The tree to walk.
+     * @param throughput The files/s counter.
+     * @return The files found.
+     */
+    @Benchmark
+    public List<String> findFiles(Corpus corpus, Throughput throughput) {
+        List<String> found = CountLines.findFiles(corpus.getRoot().toString(), "*.java");
+        throughput.add(found.size(), 0);
+        return found;
+    }
+
+    /**
+     * Lists the matching files with the fork/join walk, without reading them.
+     *
+     * @param corpus     The tree to walk.
+     * @param throughput The files/s counter.
+     * @return The files found.
+     * @throws IOException If a directory cannot be listed.
+     */
+    @Benchmark
+    public SortedMap<String, Boolean> parallelWalk(Corpus corpus, Throughput throughput) throws IOException {
+        SortedMap<String, Boolean> found = counter.scan(corpus.getRoot(), filter, file -> Boolean.TRUE);
+        throughput.add(found.size(), 0);
+        return found;
+    }
+
+    /**
+     * Walks the tree and counts every metric of every file in parallel.
+     *
+     * @param corpus     The tree to scan.
+     * @param throughput The MB/s and files/s counters.
+     * @return The per-file counts.
+     * @throws IOException If a directory or a file cannot be read.
+     */
+    @Benchmark
+    public SortedMap<String, LineCounts> parallelAll(Corpus corpus, Throughput throughput) throws IOException {
+        SortedMap<String, LineCounts> counts = counter.scan(corpus.getRoot(), filter,
+                file -> CountLines.all(file.toString()));
+        throughput.add(counts.size(), corpus.getBytes());
+        return counts;
+    }
+}
@@ -1,51 +1,95 @@
 package edu.arsw.codelines;
 
 import java.io.IOException;
-import org.springframework.boot.SpringApplication;
-import org.springframework.boot.autoconfigure.SpringBootApplication;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Main class and entry point for the code line counting application.
  * <p>
- * This class initializes the Spring Boot context and handles the
- * CLI logic, validating arguments and delegating
- * file processing.
+ * This class handles the CLI logic, validating arguments and delegating
+ * file processing. It is a plain Java entry point that does not start a Spring
+ * context, since nothing in the tool uses one, so each invocation only pays for
+ * the JVM and the classes it actually runs.
  *
  * @author Andres Chavarro
  * @version 1.0
  * @since 2025-06-12
  */
-@SpringBootApplication
 public class CodelinesApplication {
 
     /**
      * The main entry point for the program.
      * <p>
-     * It validates that exactly two command line arguments are provided
-     * and then invokes the counting process. If the arguments are incorrect or
-     * if a file reading error occurs, the program will terminate and display
-     * an error message.
+     * It validates that exactly two positional command line arguments are provided,
+     * reads the optional flags and then invokes the counting process. If the
+     * arguments are incorrect or if a file reading error occurs, the program will
+     * terminate and display an error message.
      *
      * @param args A string array with the command-line arguments:
      * <ul>
-     * <li>args[0]: The count type ('phy' for physical or 'loc' for logical).</li>
+     * <li>args[0]: The count type ('phy' for physical, 'loc' for logical or 'all' for every metric).</li>
      * <li>args[1]: The path or pattern of the files to be processed.</li>
+     * <li>--threads N: Optional number of worker threads, one per core by default.</li>
+     * <li>--mapped: Optional flag to scan memory-mapped files instead of reading them through a buffer.</li>
+     * <li>--cache: Optional flag to skip files that did not change since the last scan.</li>
+     * <li>--hash: Optional flag to compare cached files by content when only their time changed.</li>
+     * <li>--exclude GLOB: Optional pattern of files or directories to skip, can be repeated.</li>
+     * <li>--format text|json|csv: Optional report format, text by default.</li>
+     * <li>--output FILE: Optional file to write the report to instead of the console.</li>
+     * <li>--watch: Optional flag to keep counting the files that change after the first report.</li>
      * </ul>
      */
     public static void main(String[] args) {
-        SpringApplication.run(CodelinesApplication.class, args);
+        List<String> positional = new ArrayList<>();
+        ScanOptions options = new ScanOptions();
 
-        if (args.length != 2) {
+        for (int i = 0; i < args.length; i++) {
+            if ("--threads".equals(args[i]) && i + 1 < args.length) {
+                try {
+                    options.threads(Integer.parseInt(args[++i]));
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Error: --threads requires a positive integer.");
+                    return;
+                }
+            } else if ("--mapped".equals(args[i])) {
+                options.mapped(true);
+            } else if ("--cache".equals(args[i])) {
+                options.cache(true);
+            } else if ("--hash".equals(args[i])) {
+                options.cache(true).hash(true);
+            } else if ("--exclude".equals(args[i]) && i + 1 < args.length) {
+                options.exclude(args[++i]);
+            } else if ("--format".equals(args[i]) && i + 1 < args.length) {
+                try {
+                    options.format(args[++i]);
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Error: --format must be one of " + CountReport.FORMATS + ".");
+                    return;
+                }
+            } else if ("--output".equals(args[i]) && i + 1 < args.length) {
+                options.output(Paths.get(args[++i]));
+            } else if ("--watch".equals(args[i])) {
+                options.watch(true);
+            } else {
+                positional.add(args[i]);
+            }
+        }
+
+        if (positional.size() != 2) {
             System.err.println("Error: Two arguments are required.");
-            System.err.println("Usage: java CountLinesApp <phy|loc> <file_pattern>");
+            System.err.println("Usage: java CountLinesApp <phy|loc|all> <file_pattern>"
+                    + " [--threads N] [--mapped] [--cache] [--hash] [--exclude GLOB]"
+                    + " [--format text|json|csv] [--output FILE] [--watch]");
             return;
         }
 
-        String countType = args[0];
-        String pattern = args[1];
+        String countType = positional.get(0);
+        String pattern = positional.get(1);
 
         try {
-            CountLines.processPath(pattern, countType);
+            CountLines.processPath(pattern, countType, options);
         } catch (IOException e) {
             System.err.println("Error processing the file(s): " + e.getMessage());
             System.exit(1);
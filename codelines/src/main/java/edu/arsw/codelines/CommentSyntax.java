@@ -0,0 +1,288 @@
+package edu.arsw.codelines;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The comment and string-literal syntax of a family of languages, compiled into a
+ * byte-level transition table.
+ * <p>
+ * A syntax is described by its single-line comment markers, its block comment
+ * delimiters and its quote characters. When it is created, that description is
+ * turned into a deterministic automaton: every state has one entry per byte value
+ * that holds the next state and whether the byte makes the line hold code, hold
+ * visible text, or end. {@link LineScanner} then classifies a file with one table
+ * lookup per byte and no marker comparisons.
+ * <p>
+ * Markers are matched greedily, so a syntax may use markers that start like each
+ * other, such as {@code --} and {@code --[[} in Lua, or a quote and a triple quote
+ * in Python. Strings end at their closing quote, after a backslash escape, or at
+ * the end of the line, and markers inside them are ignored.
+ *
+ * @author Andres Chavarro
+ * @version 1.0
+ * @since 2025-06-12
+ */
+public final class CommentSyntax {
+
+    /** The byte belongs to code or to a string literal. */
+    static final int CODE = 1;
+    /** The byte is neither whitespace nor a line terminator. */
+    static final int TEXT = 2;
+    /** The byte ends the current line. */
+    static final int END_OF_LINE = 4;
+    /** The number of low bits of a table entry used by the flags above. */
+    static final int FLAG_BITS = 3;
+
+    private static final int KIND_CODE = 0;
+    private static final int KIND_LINE_COMMENT = 1;
+    private static final int KIND_BLOCK_COMMENT = 2;
+    private static final int KIND_STRING = 3;
+
+    private final String name;
+    private final String[] lineComments;
+    private final String[][] blockComments;
+    private final String quotes;
+    private final int[] table;
+
+    /**
+     * The state of the automaton while it is being compiled.
+     *
+     * @param kind    Whether the scanner is in code, a comment or a string.
+     * @param index   The block comment or quote the scanner is in.
+     * @param pending The bytes read that may still become a marker.
+     * @param escaped Whether the previous byte of a string was a backslash.
+     */
+    private record State(int kind, int index, String pending, boolean escaped) {
+    }
+
+    /**
+     * The result of reading one byte while compiling.
+     */
+    private record Step(State next, int flags) {
+    }
+
+    private static final State CODE_STATE = new State(KIND_CODE, 0, "", false);
+    private static final State LINE_COMMENT_STATE = new State(KIND_LINE_COMMENT, 0, "", false);
+
+    /**
+     * Describes and compiles a comment syntax.
+     *
+     * @param name          A short name of the language family, used in messages.
+     * @param lineComments  The markers that start a comment running to the end of the line.
+     * @param blockComments The start and end delimiters of each kind of block comment.
+     * @param quotes        The characters that open and close string literals.
+     * @throws IllegalArgumentException If a marker is empty or contains whitespace.
+     */
+    public CommentSyntax(String name, String[] lineComments, String[][] blockComments, String quotes) {
+        this.name = name;
+        this.lineComments = lineComments.clone();
+        this.blockComments = blockComments.clone();
+        this.quotes = quotes;
+
+        List<String> delimiters = markers();
+        for (String[] block : blockComments) {
+            delimiters.add(block[1]);
+        }
+        for (String marker : delimiters) {
+            if (marker.isEmpty() || marker.chars().anyMatch(c -> c <= ' ')) {
+                throw new IllegalArgumentException("Invalid comment marker in " + name + ": '" + marker + "'");
+            }
+        }
+
+        this.table = compile();
+    }
+
+    /**
+     * Returns the short name of the language family.
+     *
+     * @return The name given when the syntax was created.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the compiled automaton. The entry for state {@code s} and byte
+     * {@code b} is at {@code (s << 8) | b}; its upper bits hold the next state and its
+     * lowest {@link #FLAG_BITS} bits the {@link #CODE}, {@link #TEXT} and
+     * {@link #END_OF_LINE} flags. State 0 is plain code at the start of a line.
+     *
+     * @return The transition table, shared and not to be modified.
+     */
+    int[] table() {
+        return table;
+    }
+
+    /**
+     * Builds the transition table by exploring every state reachable from plain code.
+     */
+    private int[] compile() {
+        Map<State, Integer> ids = new HashMap<>();
+        List<State> states = new ArrayList<>();
+        List<int[]> rows = new ArrayList<>();
+        ids.put(CODE_STATE, 0);
+        states.add(CODE_STATE);
+
+        for (int id = 0; id < states.size(); id++) {
+            int[] row = new int[256];
+            for (int b = 0; b < 256; b++) {
+                Step step = step(states.get(id), b);
+                Integer next = ids.get(step.next());
+                if (next == null) {
+                    next = states.size();
+                    ids.put(step.next(), next);
+                    states.add(step.next());
+                }
+                row[b] = next << FLAG_BITS | step.flags();
+            }
+            rows.add(row);
+        }
+
+        int[] compiled = new int[rows.size() * 256];
+        for (int id = 0; id < rows.size(); id++) {
+            System.arraycopy(rows.get(id), 0, compiled, id << 8, 256);
+        }
+        return compiled;
+    }
+
+    /**
+     * The reference semantics of the scanner: reads one byte in the given state.
+     */
+    private Step step(State state, int b) {
+        boolean newline = b == '\n' || b == '\r';
+        int visible = b > ' ' ? TEXT : 0;
+
+        switch (state.kind()) {
+            case KIND_LINE_COMMENT -> {
+                return newline ? new Step(CODE_STATE, END_OF_LINE) : new Step(state, visible);
+            }
+            case KIND_BLOCK_COMMENT -> {
+                State start = new State(KIND_BLOCK_COMMENT, state.index(), "", false);
+                if (newline) {
+                    return new Step(start, END_OF_LINE);
+                }
+                String end = blockComments[state.index()][1];
+                String read = state.pending() + (char) b;
+                if (read.equals(end)) {
+                    return new Step(CODE_STATE, TEXT);
+                }
+                for (int from = 0; from < read.length(); from++) {
+                    if (end.startsWith(read.substring(from))) {
+                        return new Step(new State(KIND_BLOCK_COMMENT, state.index(), read.substring(from), false),
+                                visible);
+                    }
+                }
+                return new Step(start, visible);
+            }
+            case KIND_STRING -> {
+                if (newline) {
+                    return new Step(CODE_STATE, END_OF_LINE);
+                }
+                int flags = visible == 0 ? 0 : CODE | TEXT;
+                if (state.escaped()) {
+                    return new Step(new State(KIND_STRING, state.index(), "", false), flags);
+                }
+                if (b == '\\') {
+                    return new Step(new State(KIND_STRING, state.index(), "", true), flags);
+                }
+                if (b == quotes.charAt(state.index())) {
+                    return new Step(CODE_STATE, flags);
+                }
+                return new Step(state, flags);
+            }
+            default -> {
+                if (newline) {
+                    if (state.pending().isEmpty()) {
+                        return new Step(CODE_STATE, END_OF_LINE);
+                    }
+                    Step resolved = resolve(state.pending());
+                    Step ended = step(resolved.next(), b);
+                    return new Step(ended.next(), resolved.flags() | ended.flags());
+                }
+                String read = state.pending() + (char) b;
+                if (extendsMarker(read)) {
+                    return new Step(new State(KIND_CODE, 0, read, false), TEXT);
+                }
+                return resolve(read);
+            }
+        }
+    }
+
+    /**
+     * Settles bytes that cannot become a longer marker: the longest marker they start
+     * with is entered and the rest is read in its context, or the first byte is code.
+     */
+    private Step resolve(String read) {
+        String marker = null;
+        for (String candidate : markers()) {
+            if (read.startsWith(candidate) && (marker == null || candidate.length() > marker.length())) {
+                marker = candidate;
+            }
+        }
+
+        State state;
+        int flags;
+        int consumed;
+        if (marker != null) {
+            state = enter(marker);
+            flags = state.kind() == KIND_STRING ? CODE | TEXT : TEXT;
+            consumed = marker.length();
+        } else {
+            state = CODE_STATE;
+            flags = read.charAt(0) > ' ' ? CODE | TEXT : 0;
+            consumed = 1;
+        }
+
+        for (int i = consumed; i < read.length(); i++) {
+            Step step = step(state, read.charAt(i));
+            state = step.next();
+            flags |= step.flags();
+        }
+        return new Step(state, flags);
+    }
+
+    private State enter(String marker) {
+        for (String line : lineComments) {
+            if (line.equals(marker)) {
+                return LINE_COMMENT_STATE;
+            }
+        }
+        for (int i = 0; i < blockComments.length; i++) {
+            if (blockComments[i][0].equals(marker)) {
+                return new State(KIND_BLOCK_COMMENT, i, "", false);
+            }
+        }
+        return new State(KIND_STRING, quotes.indexOf(marker.charAt(0)), "", false);
+    }
+
+    /**
+     * Tells whether some marker is longer than the bytes read and starts with them.
+     */
+    private boolean extendsMarker(String read) {
+        for (String marker : markers()) {
+            if (marker.length() > read.length() && marker.startsWith(read)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<String> markers() {
+        List<String> markers = new ArrayList<>(List.of(lineComments));
+        for (String[] block : blockComments) {
+            markers.add(block[0]);
+        }
+        for (int i = 0; i < quotes.length(); i++) {
+            markers.add(String.valueOf(quotes.charAt(i)));
+        }
+        return markers;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -1,15 +1,23 @@
 package edu.arsw.codelines;
 
-import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
 
 /**
  * A utility class with static methods to count lines of code in files.
@@ -24,16 +32,22 @@ import java.util.stream.Collectors;
  */
 public class CountLines {
 
+    /** The size of the buffer between the report and the console. */
+    private static final int REPORT_BUFFER_SIZE = 64 * 1024;
+
     /**
      * Counts the total number of physical lines in a given file.
+     * <p>
+     * Lines end at {@code \n}, {@code \r} or {@code \r\n}. The terminators are found
+     * in the raw bytes, as in {@link #all(String)}, so a file that is not valid text
+     * is counted instead of failing the scan.
      *
      * @param filePath The path to the file to be measured.
      * @return The total number of lines in the file.
      * @throws IOException If an I/O error occurs reading the file.
      */
     public static int physical(String filePath) throws IOException {
-        Path path = Paths.get(filePath);
-        return (int) Files.lines(path).count();
+        return LineScanner.physical(Paths.get(filePath));
     }
 
     /**
@@ -42,21 +56,44 @@ public class CountLines {
      * @param directory The base directory to start the search from.
      * @param pattern   The wildcard pattern to match file names against.
      * @return A list of paths for all matching files.
+     * @see GlobFilter
      */
     public static List<String> findFiles(String directory, String pattern) {
-        List<String> matchingFiles = new ArrayList<>();
+        return findFiles(directory, new GlobFilter(List.of(pattern), List.of()));
+    }
 
-        String regex = pattern
-                .replace(".", "\\.")
-                .replace("*", ".*")
-                .replace("?", ".");
+    /**
+     * Finds all files within a directory and its subdirectories accepted by a filter.
+     * <p>
+     * Directories rejected by the filter are pruned from the walk, so they are
+     * never listed.
+     *
+     * @param directory The base directory to start the search from.
+     * @param filter    The compiled include and exclude patterns.
+     * @return A list of paths for all matching files.
+     */
+    public static List<String> findFiles(String directory, GlobFilter filter) {
+        List<String> matchingFiles = new ArrayList<>();
+        Path root = Paths.get(directory);
 
         try {
-            matchingFiles = Files.walk(Paths.get(directory))
-                    .filter(Files::isRegularFile)
-                    .map(Path::toString)
-                    .filter(path -> path.matches(".*" + regex))
-                    .collect(Collectors.toList());
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (!dir.equals(root) && !filter.acceptsDirectory(root.relativize(dir))) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile() && filter.acceptsFile(root.relativize(file))) {
+                        matchingFiles.add(file.toString());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
         } catch (IOException e) {
             System.err.println("Error searching for files: " + e.getMessage());
         }
@@ -67,148 +104,298 @@ public class CountLines {
     /**
      * Counts the logical lines of code (LOC) in a file.
      * <p>
-     * This method ignores blank lines, single-line comments and multi-line
-     * block comments. It correctly handles code that appears on the
-     * same line as a comment.
+     * This method ignores blank lines and lines that only hold comments, and
+     * correctly handles code that appears on the same line as a comment. Comment
+     * markers are those of the file's language, chosen by its extension through the
+     * {@link SyntaxRegistry}, and markers inside string literals are not comments.
      *
      * @param filePath The path to the source code file.
      * @return The total number of logical lines of code.
      * @throws IOException If an I/O error occurs reading the file.
      */
     public static int logical(String filePath) throws IOException {
-        int locCount = 0;
-        boolean inMultiLineComment = false;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-
-                if (line.isEmpty()) {
-                    continue;
-                }
-
-                if (inMultiLineComment) {
-                    if (line.contains("*/")) {
-                        inMultiLineComment = false;
-                        String afterComment = line.substring(line.indexOf("*/") + 2).trim();
-                        if (!afterComment.isEmpty() && !afterComment.startsWith("//")) {
-                            locCount++;
-                        }
-                    }
-                    continue;
-                }
-
-                if (line.startsWith("//")) {
-                    continue;
-                }
-
-                if (line.startsWith("/*")) {
-                    inMultiLineComment = true;
-                    if (line.contains("*/")) {
-                        inMultiLineComment = false;
-                        String afterComment = line.substring(line.indexOf("*/") + 2).trim();
-                        if (!afterComment.isEmpty() && !afterComment.startsWith("//")) {
-                            locCount++;
-                        }
-                    }
-                    continue;
-                }
-
-                if (line.contains("//")) {
-                    String beforeComment = line.substring(0, line.indexOf("//")).trim();
-                    if (!beforeComment.isEmpty()) {
-                        locCount++;
-                    }
-                    continue;
-                }
-                
-                if (line.contains("/*")) {
-                    inMultiLineComment = true;
-                    if (line.contains("*/")) {
-                        inMultiLineComment = false;
-                        String beforeComment = line.substring(0, line.indexOf("/*")).trim();
-                        String afterComment = line.substring(line.indexOf("*/") + 2).trim();
-
-                        if (!beforeComment.isEmpty() || (!afterComment.isEmpty() && !afterComment.startsWith("//"))) {
-                            locCount++;
-                        }
-                    } else {
-                        String beforeComment = line.substring(0, line.indexOf("/*")).trim();
-                        if (!beforeComment.isEmpty()) {
-                            locCount++;
-                        }
-                    }
-                    continue;
-                }
+        return all(filePath).logical();
+    }
 
-                locCount++;
-            }
-        }
+    /**
+     * Counts physical, logical, blank and comment lines of a file in a single read.
+     * <p>
+     * The file is read once through a small buffer and every metric is taken from
+     * the same pass, so asking for all of them costs the same I/O as asking for one.
+     *
+     * @param filePath The path to the source code file.
+     * @return All the line metrics of the file.
+     * @throws IOException If an I/O error occurs reading the file.
+     */
+    public static LineCounts all(String filePath) throws IOException {
+        return LineScanner.read(Paths.get(filePath));
+    }
 
-        return locCount;
+    /**
+     * Processes a given path using one worker thread per available processor.
+     *
+     * @param pathOrPattern The file path, directory path, or wildcard pattern to process.
+     * @param countType     The type of count to perform ("phy", "loc" or "all").
+     * @throws IOException If an I/O error occurs during file processing.
+     * @see #processPath(String, String, int)
+     */
+    public static void processPath(String pathOrPattern, String countType) throws IOException {
+        processPath(pathOrPattern, countType, Runtime.getRuntime().availableProcessors());
     }
 
+    /**
+     * Processes a given path with the given number of worker threads.
+     *
+     * @param pathOrPattern The file path, directory path, or wildcard pattern to process.
+     * @param countType     The type of count to perform ("phy", "loc" or "all").
+     * @param threads       The number of worker threads used for directories and patterns.
+     * @throws IOException If an I/O error occurs during file processing.
+     * @see #processPath(String, String, ScanOptions)
+     */
+    public static void processPath(String pathOrPattern, String countType, int threads) throws IOException {
+        processPath(pathOrPattern, countType, new ScanOptions().threads(threads));
+    }
 
     /**
      * Processes a given path, which can be a single file, a directory, or a pattern.
      * <p>
      * This method acts as a dispatcher. It determines the nature of the path and
-     * invokes the appropriate counting logic, printing results to the console.
+     * invokes the appropriate counting logic, writing a {@link CountReport} to the
+     * console or to the output file. Directories and patterns are counted in parallel
+     * by a {@link ParallelCounter}, and their results are reported sorted by path.
      *
      * @param pathOrPattern The file path, directory path, or wildcard pattern to process.
-     * @param countType     The type of count to perform ("phy" or "loc").
+     * @param countType     The type of count to perform ("phy", "loc" or "all").
+     * @param options       The thread count, counting backend, cache, exclude and report settings.
      * @throws IOException If an I/O error occurs during file processing.
      */
-    public static void processPath(String pathOrPattern, String countType) throws IOException {
+    public static void processPath(String pathOrPattern, String countType, ScanOptions options)
+            throws IOException {
+        if (!"phy".equalsIgnoreCase(countType) && !"loc".equalsIgnoreCase(countType)
+                && !"all".equalsIgnoreCase(countType)) {
+            System.out.println("Invalid count type. Use 'phy', 'loc' or 'all'.");
+            return;
+        }
+
         File file = new File(pathOrPattern);
 
         if (file.isFile()) {
-            int count;
-            if ("phy".equalsIgnoreCase(countType)) {
-                count = physical(pathOrPattern);
-                System.out.println("Physical lines in " + pathOrPattern + ": " + count);
-            } else if ("loc".equalsIgnoreCase(countType)) {
-                count = logical(pathOrPattern);
-                System.out.println("Lines of code in " + pathOrPattern + ": " + count);
-            } else {
-                System.out.println("Invalid count type. Use 'phy' or 'loc'.");
+            Path parent = Paths.get(pathOrPattern).getParent();
+            SortedMap<String, LineCounts> counts = new TreeMap<>();
+            counts.put(pathOrPattern, count(pathOrPattern, countType, options));
+            report(parent == null ? Paths.get("") : parent, counts, countType, options);
+            if (options.isWatch()) {
+                note("Watch mode needs a directory or a pattern.", options);
             }
         } else if (file.isDirectory()) {
-            System.out.println("Processing all files in directory: " + pathOrPattern);
-
-            List<String> allFiles = Files.walk(Paths.get(pathOrPattern))
-                    .filter(Files::isRegularFile)
-                    .map(Path::toString)
-                    .collect(Collectors.toList());
+            note("Processing all files in directory: " + pathOrPattern, options);
+            Path directory = Paths.get(pathOrPattern);
+            GlobFilter filter = new GlobFilter(List.of(), options.getExcludes());
+            SortedMap<String, LineCounts> counts = scan(directory, filter, countType, options);
+            report(directory, counts, countType, options);
 
-            for (String filePath : allFiles) {
-                processPath(filePath, countType);
+            if (options.isWatch()) {
+                watch(directory, filter, counts, countType, options);
             }
         } else {
-            if (pathOrPattern.contains("*") || pathOrPattern.contains("?")) {
+            int globIndex = indexOfGlob(pathOrPattern);
+
+            if (globIndex >= 0) {
                 String directory = ".";
                 String pattern = pathOrPattern;
 
-                int lastSlashIndex = pathOrPattern.lastIndexOf(File.separator);
+                int lastSlashIndex = Math.max(pathOrPattern.lastIndexOf('/', globIndex),
+                        pathOrPattern.lastIndexOf(File.separatorChar, globIndex));
                 if (lastSlashIndex >= 0) {
-                    directory = pathOrPattern.substring(0, lastSlashIndex);
+                    directory = lastSlashIndex == 0 ? File.separator : pathOrPattern.substring(0, lastSlashIndex);
                     pattern = pathOrPattern.substring(lastSlashIndex + 1);
                 }
 
-                List<String> matchingFiles = findFiles(directory, pattern);
+                GlobFilter filter = new GlobFilter(List.of(pattern), options.getExcludes());
+                SortedMap<String, LineCounts> counts = scan(Paths.get(directory), filter, countType, options);
 
-                if (matchingFiles.isEmpty()) {
-                    System.out.println("No files matching the pattern were found.");
+                if (counts.isEmpty()) {
+                    note("No files matching the pattern were found.", options);
                 } else {
-                    for (String filePath : matchingFiles) {
-                        processPath(filePath, countType);
-                    }
+                    report(Paths.get(directory), counts, countType, options);
+                }
+
+                if (options.isWatch()) {
+                    watch(Paths.get(directory), filter, counts, countType, options);
                 }
             } else {
                 System.out.println("File not found: " + pathOrPattern);
             }
         }
     }
+
+    /**
+     * Counts the files below a directory on a {@link ParallelCounter}.
+     * <p>
+     * When the cache is enabled, it is loaded from the given directory before the scan
+     * and saved back once every file was counted.
+     *
+     * @param directory The scanned directory, where the cache is kept.
+     * @param filter    The filter that selects the files to count.
+     * @param countType The type of count to perform ("phy", "loc" or "all").
+     * @param options   The thread count, backend and cache settings.
+     * @return The per-file counts, sorted by path.
+     * @throws IOException If an I/O error occurs during file processing.
+     */
+    private static SortedMap<String, LineCounts> scan(Path directory, GlobFilter filter, String countType,
+            ScanOptions options) throws IOException {
+        ParallelCounter.FileCounter<LineCounts> counter = path -> count(path.toString(), countType, options);
+        LineCountCache cache = null;
+
+        if (options.isCache()) {
+            LineCountCache loaded = LineCountCache.load(directory, options.isHash());
+            ParallelCounter.FileCounter<LineCounts> allMetrics = path -> count(path.toString(), "all", options);
+            counter = path -> loaded.get(path, allMetrics);
+            cache = loaded;
+        }
+
+        SortedMap<String, LineCounts> counts;
+        try (ParallelCounter engine = new ParallelCounter(options.getThreads())) {
+            counts = engine.scan(directory, filter, counter);
+        }
+
+        if (cache != null) {
+            cache.save();
+            note("Cache: " + cache.getHits() + " unchanged, " + cache.getMisses() + " counted", options);
+        }
+        return counts;
+    }
+
+    /**
+     * Keeps counting the files of a directory as they change, until the directory is
+     * deleted or the program is stopped.
+     * <p>
+     * In the text format, every update prints the changed files and the new totals.
+     * In the other formats, or when an output file was given, the whole report is
+     * written again, so a dashboard reading it always sees the current totals.
+     *
+     * @param directory The watched directory, the top of the report tree.
+     * @param filter    The filter that selects the files to follow.
+     * @param counts    The counts of the first scan.
+     * @param countType The type of count to perform ("phy", "loc" or "all").
+     * @param options   The backend, format and output settings.
+     * @throws IOException If an I/O error occurs watching the files or writing the report.
+     */
+    private static void watch(Path directory, GlobFilter filter, SortedMap<String, LineCounts> counts,
+            String countType, ScanOptions options) throws IOException {
+        // The report is rewritten by this program and must not trigger updates; the
+        // cache files are already left out by the filter.
+        List<Path> ownFiles = new ArrayList<>();
+        if (options.getOutput() != null) {
+            Path output = options.getOutput().toAbsolutePath().normalize();
+            ownFiles.add(output);
+            ownFiles.add(output.resolveSibling(output.getFileName() + ".tmp"));
+        }
+        ParallelCounter.FileCounter<LineCounts> counter = path -> ownFiles.contains(path.toAbsolutePath().normalize())
+                ? null : count(path.toString(), countType, options);
+
+        note("Watching " + directory + " for changes, press Ctrl+C to stop.", options);
+
+        try (CountWatcher watcher = new CountWatcher(directory, filter, counter, counts,
+                message -> note(message, options))) {
+            while (watcher.isWatching()) {
+                SortedSet<String> changed = watcher.awaitChanges();
+                if (changed.isEmpty()) {
+                    continue;
+                }
+
+                if ("text".equals(options.getFormat()) && options.getOutput() == null) {
+                    for (String path : changed) {
+                        LineCounts fileCounts = watcher.getCounts(path);
+                        System.out.println(fileCounts == null ? "Removed " + path
+                                : CountReport.fileLine(countType, path, fileCounts));
+                    }
+                    System.out.println(CountReport.totalLine(countType, watcher.getFileCount(), watcher.getTotals()));
+                } else {
+                    report(directory, watcher.getCounts(), countType, options);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes the report of the counted files through a buffered writer, to the
+     * output file if one was given or to the console otherwise. The output file is
+     * replaced in one step, so readers never see a partial report.
+     *
+     * @param root      The scanned directory, the top of the report tree.
+     * @param counts    The per-file counts, sorted by path.
+     * @param countType The type of count that was performed.
+     * @param options   The format and output settings.
+     * @throws IOException If an I/O error occurs writing the report.
+     */
+    private static void report(Path root, SortedMap<String, LineCounts> counts, String countType,
+            ScanOptions options) throws IOException {
+        CountReport report = new CountReport(root, counts, countType);
+
+        if (options.getOutput() != null) {
+            Path temporary = options.getOutput().resolveSibling(options.getOutput().getFileName() + ".tmp");
+            try (Writer out = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                report.write(out, options.getFormat());
+            }
+            Files.move(temporary, options.getOutput(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } else {
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8),
+                    REPORT_BUFFER_SIZE);
+            report.write(out, options.getFormat());
+            out.flush();
+        }
+    }
+
+    /**
+     * Prints a progress message where it does not mix with a machine-readable report.
+     *
+     * @param message The message to show.
+     * @param options The options that tell the report format.
+     */
+    private static void note(String message, ScanOptions options) {
+        if ("text".equalsIgnoreCase(options.getFormat())) {
+            System.out.println(message);
+        } else {
+            System.err.println(message);
+        }
+    }
+
+    /**
+     * Finds the first glob character of a path or pattern.
+     *
+     * @param pathOrPattern The text given on the command line.
+     * @return The index of the first '*', '?', '[' or '{', or -1 if it is a plain path.
+     */
+    private static int indexOfGlob(String pathOrPattern) {
+        for (int i = 0; i < pathOrPattern.length(); i++) {
+            char c = pathOrPattern.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '{') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Counts a single file with the requested count type.
+     *
+     * @param filePath  The path to the file to be measured.
+     * @param countType The type of count to perform ("phy", "loc" or "all").
+     * @param options   The options that select the counting backend.
+     * @return The requested metrics of the file, the others are left at zero.
+     * @throws IOException If an I/O error occurs reading the file.
+     */
+    private static LineCounts count(String filePath, String countType, ScanOptions options) throws IOException {
+        if ("all".equalsIgnoreCase(countType)) {
+            return options.isMapped() ? MappedCounter.count(filePath) : all(filePath);
+        }
+        if ("phy".equalsIgnoreCase(countType)) {
+            return LineCounts.ofPhysical(options.isMapped() ? MappedCounter.physical(filePath) : physical(filePath));
+        }
+        return LineCounts.ofLogical(options.isMapped() ? MappedCounter.logical(filePath) : logical(filePath));
+    }
 }
@@ -0,0 +1,370 @@
+package edu.arsw.codelines;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the line counts of a directory tree up to date as its files change.
+ * <p>
+ * Every directory accepted by the filter is registered with a {@link WatchService}.
+ * When files are created, modified or deleted, only those files are counted again
+ * and the totals are adjusted by the difference, so an update costs as much as the
+ * changed files regardless of the size of the tree. New directories are registered
+ * and counted as they appear; deleted ones take their files out of the totals.
+ * Bursts of events, such as an editor saving several times, are coalesced into a
+ * single update.
+ * <p>
+ * A file that cannot be read, because it is locked, half-written or rejected by the
+ * counter, does not stop the watch: a warning is reported, the file keeps the counts
+ * it had before, and it is counted again on its next change.
+ * <p>
+ * The watcher is not thread-safe: it is meant to be driven by one thread calling
+ * {@link #awaitChanges()} or {@link #poll(long, TimeUnit)} in a loop.
+ *
+ * @author Andres Chavarro
+ * @version 1.0
+ * @since 2025-06-12
+ */
+public class CountWatcher implements AutoCloseable {
+
+    /** How long to wait for more events once a change was seen, in milliseconds. */
+    private static final long SETTLE_MILLIS = 50;
+
+    private final Path root;
+    private final GlobFilter filter;
+    private final ParallelCounter.FileCounter<LineCounts> counter;
+    private final Consumer<String> warnings;
+    private final WatchService service;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+    private final SortedMap<String, LineCounts> counts;
+    private LineCounts totals = LineCounts.ZERO;
+
+    /**
+     * Starts watching a tree whose files were already counted.
+     *
+     * @param root    The directory to watch recursively.
+     * @param filter  The filter that selects the files and directories to follow.
+     * @param counter The function used to count created and modified files.
+     * @param initial The counts of the accepted files as they are now, keyed by path.
+     * @throws IOException If the tree cannot be walked or registered.
+     */
+    public CountWatcher(Path root, GlobFilter filter, ParallelCounter.FileCounter<LineCounts> counter,
+            SortedMap<String, LineCounts> initial) throws IOException {
+        this(root, filter, counter, initial, System.err::println);
+    }
+
+    /**
+     * Starts watching a tree whose files were already counted, reporting the files
+     * that cannot be counted to the given consumer.
+     *
+     * @param root     The directory to watch recursively.
+     * @param filter   The filter that selects the files and directories to follow.
+     * @param counter  The function used to count created and modified files.
+     * @param initial  The counts of the accepted files as they are now, keyed by path.
+     * @param warnings Receives a message for every file or directory that fails.
+     * @throws IOException If the tree cannot be walked or registered.
+     */
+    public CountWatcher(Path root, GlobFilter filter, ParallelCounter.FileCounter<LineCounts> counter,
+            SortedMap<String, LineCounts> initial, Consumer<String> warnings) throws IOException {
+        this.root = root;
+        this.filter = filter;
+        this.counter = counter;
+        this.warnings = warnings;
+        this.counts = new TreeMap<>(initial);
+        for (LineCounts fileCounts : initial.values()) {
+            totals = totals.plus(fileCounts);
+        }
+
+        this.service = root.getFileSystem().newWatchService();
+        try {
+            registerTree(root, null);
+        } catch (IOException e) {
+            service.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Waits until at least one watched file changes and applies every pending change.
+     *
+     * @return The paths whose counts changed, sorted; empty once nothing is watched anymore.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public SortedSet<String> awaitChanges() throws InterruptedException {
+        if (!isWatching()) {
+            return Collections.emptySortedSet();
+        }
+        try {
+            return apply(service.take());
+        } catch (ClosedWatchServiceException e) {
+            return Collections.emptySortedSet();
+        }
+    }
+
+    /**
+     * Applies the pending changes, waiting up to the given time for the first one.
+     *
+     * @param timeout How long to wait for a change.
+     * @param unit    The unit of the timeout.
+     * @return The paths whose counts changed, sorted; empty if nothing changed in time.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public SortedSet<String> poll(long timeout, TimeUnit unit) throws InterruptedException {
+        WatchKey key = service.poll(timeout, unit);
+        return key == null ? Collections.emptySortedSet() : apply(key);
+    }
+
+    /**
+     * Tells whether some directory of the tree is still being watched.
+     *
+     * @return false once the watched root was deleted or the watcher was closed.
+     */
+    public boolean isWatching() {
+        return !directories.isEmpty();
+    }
+
+    /**
+     * Returns the current counts of the watched files.
+     *
+     * @return A read-only view of the per-file counts, sorted by path.
+     */
+    public SortedMap<String, LineCounts> getCounts() {
+        return Collections.unmodifiableSortedMap(counts);
+    }
+
+    /**
+     * Returns the current counts of a single file.
+     *
+     * @param path The path of the file, as reported by {@link #awaitChanges()}.
+     * @return The counts of the file, or null if it is not watched or was deleted.
+     */
+    public LineCounts getCounts(String path) {
+        return counts.get(path);
+    }
+
+    /**
+     * Returns the sum of the counts of every watched file.
+     *
+     * @return The current totals.
+     */
+    public LineCounts getTotals() {
+        return totals;
+    }
+
+    /**
+     * Returns the number of watched files.
+     *
+     * @return The number of files in the totals.
+     */
+    public int getFileCount() {
+        return counts.size();
+    }
+
+    /**
+     * Stops watching and releases the watch service.
+     *
+     * @throws IOException If the watch service cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        directories.clear();
+        service.close();
+    }
+
+    /**
+     * Collects the paths named by the first key and by any key that follows shortly
+     * after it, then counts each of them once.
+     */
+    private SortedSet<String> apply(WatchKey first) throws InterruptedException {
+        Set<Path> touched = new LinkedHashSet<>();
+        List<Path> overflowed = new ArrayList<>();
+
+        for (WatchKey key = first; key != null; key = service.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) {
+            Path directory = directories.get(key);
+            if (directory != null) {
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        overflowed.add(directory);
+                    } else {
+                        touched.add(directory.resolve((Path) event.context()));
+                    }
+                }
+            }
+            if (!key.reset()) {
+                directories.remove(key);
+            }
+        }
+
+        SortedSet<String> changed = new TreeSet<>();
+        for (Path path : touched) {
+            update(path, changed);
+        }
+        for (Path directory : overflowed) {
+            resync(directory, changed);
+        }
+        return changed;
+    }
+
+    /**
+     * Brings one path up to date: counts it if it is an accepted file, registers it
+     * if it is a new directory, and forgets it and everything below it if it is gone.
+     */
+    private void update(Path path, SortedSet<String> changed) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException e) {
+            forget(path, changed);
+            return;
+        } catch (IOException e) {
+            warn(path, e);
+            return;
+        }
+
+        Path relative = root.relativize(path);
+        if (attributes.isDirectory()) {
+            if (!directories.containsValue(path) && filter.acceptsDirectory(relative)) {
+                try {
+                    registerTree(path, changed);
+                } catch (IOException e) {
+                    warn(path, e);
+                }
+            }
+        } else if (attributes.isRegularFile() && filter.acceptsFile(relative)) {
+            recount(path, changed);
+        }
+    }
+
+    /**
+     * Counts every accepted file of a directory again after events were lost.
+     */
+    private void resync(Path directory, SortedSet<String> changed) {
+        if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)) {
+            forget(directory, changed);
+            return;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                update(entry, changed);
+            }
+        } catch (IOException | DirectoryIteratorException e) {
+            warn(directory, e);
+        }
+    }
+
+    /**
+     * Counts a created or modified file again. A file that is gone leaves the totals,
+     * and one that cannot be counted keeps its previous counts.
+     */
+    private void recount(Path file, SortedSet<String> changed) {
+        LineCounts fresh;
+        try {
+            fresh = counter.count(file);
+        } catch (NoSuchFileException e) {
+            fresh = null;
+        } catch (IOException | UncheckedIOException e) {
+            warn(file, e);
+            return;
+        }
+
+        String key = file.toString();
+        LineCounts old = fresh == null ? counts.remove(key) : counts.put(key, fresh);
+        if (old != null) {
+            totals = totals.minus(old);
+        }
+        if (fresh != null) {
+            totals = totals.plus(fresh);
+        }
+        if (old != null || fresh != null) {
+            changed.add(key);
+        }
+    }
+
+    private void warn(Path path, Exception e) {
+        Throwable cause = e instanceof UncheckedIOException ? e.getCause() : e;
+        warnings.accept("Warning: Could not count " + path + ": " + cause);
+    }
+
+    /**
+     * Takes a deleted file, or every file below a deleted directory, out of the totals.
+     */
+    private void forget(Path path, SortedSet<String> changed) {
+        String key = path.toString();
+        String prefix = key + path.getFileSystem().getSeparator();
+
+        List<String> removed = new ArrayList<>();
+        if (counts.containsKey(key)) {
+            removed.add(key);
+        }
+        for (String candidate : counts.tailMap(prefix).keySet()) {
+            if (!candidate.startsWith(prefix)) {
+                break;
+            }
+            removed.add(candidate);
+        }
+
+        for (String file : removed) {
+            totals = totals.minus(counts.remove(file));
+            changed.add(file);
+        }
+    }
+
+    /**
+     * Registers a directory and its accepted subdirectories. When a set of changes is
+     * given, the directory is new and the files found in it are counted as well.
+     */
+    private void registerTree(Path start, SortedSet<String> changed) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (!dir.equals(root) && !filter.acceptsDirectory(root.relativize(dir))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                WatchKey key = dir.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                directories.put(key, dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (changed != null && attrs.isRegularFile() && filter.acceptsFile(root.relativize(file))) {
+                    recount(file, changed);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,119 @@
+package edu.arsw.codelines;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Decides which files and directories a scan visits, using pre-compiled globs.
+ * <p>
+ * Patterns follow the syntax of {@link java.nio.file.FileSystem#getPathMatcher},
+ * including {@code **}, brace sets such as {@code *.{java,kt}} and character
+ * classes. A pattern without a separator is matched against the file name only, so
+ * {@code *.java} finds Java files at any depth; a pattern with a separator is
+ * matched against the path relative to the scanned directory, and a leading
+ * {@code **}{@code /} also matches files directly in that directory.
+ * <p>
+ * Excluded directories are pruned: the walk never enters them. Besides the
+ * user-supplied excludes, the {@link #PRUNED_DIRECTORIES} are always skipped, and so
+ * are the {@link #IGNORED_FILES} that the program itself writes into scanned trees.
+ *
+ * @author Andres Chavarro
+ * @version 1.0
+ * @since 2025-06-12
+ */
+public class GlobFilter {
+
+    /** Version control, dependency and build directories that are never scanned. */
+    public static final Set<String> PRUNED_DIRECTORIES = Set.of(".git", ".hg", ".svn", "node_modules", "target");
+
+    /** The files of the {@link LineCountCache}, which are never counted, with or without --cache. */
+    public static final Set<String> IGNORED_FILES = Set.of(LineCountCache.FILE_NAME, LineCountCache.FILE_NAME + ".tmp");
+
+    /** A filter that accepts every file and every directory. */
+    public static final GlobFilter ALL = new GlobFilter(List.of(), List.of(), Set.of(), Set.of());
+
+    private final List<PathMatcher> includes;
+    private final List<PathMatcher> excludes;
+    private final Set<String> prunedDirectories;
+    private final Set<String> ignoredFiles;
+
+    /**
+     * Creates a filter that also prunes the default {@link #PRUNED_DIRECTORIES} and
+     * skips the {@link #IGNORED_FILES}.
+     *
+     * @param includes The globs a file must match, or an empty list to accept every file.
+     * @param excludes The globs of files and directories to leave out.
+     */
+    public GlobFilter(List<String> includes, List<String> excludes) {
+        this(includes, excludes, PRUNED_DIRECTORIES, IGNORED_FILES);
+    }
+
+    private GlobFilter(List<String> includes, List<String> excludes, Set<String> prunedDirectories,
+            Set<String> ignoredFiles) {
+        this.includes = compile(includes);
+        this.excludes = compile(excludes);
+        this.prunedDirectories = prunedDirectories;
+        this.ignoredFiles = ignoredFiles;
+    }
+
+    /**
+     * Tells whether the walk should enter a directory.
+     *
+     * @param relative The path of the directory relative to the scanned directory.
+     * @return false if the directory and everything below it must be skipped.
+     */
+    public boolean acceptsDirectory(Path relative) {
+        Path name = relative.getFileName();
+        return (name == null || !prunedDirectories.contains(name.toString())) && !matchesAny(excludes, relative);
+    }
+
+    /**
+     * Tells whether a file must be counted.
+     *
+     * @param relative The path of the file relative to the scanned directory.
+     * @return true if the file matches an include and no exclude, and is not ignored.
+     */
+    public boolean acceptsFile(Path relative) {
+        Path name = relative.getFileName();
+        return (name == null || !ignoredFiles.contains(name.toString()))
+                && (includes.isEmpty() || matchesAny(includes, relative)) && !matchesAny(excludes, relative);
+    }
+
+    private static boolean matchesAny(List<PathMatcher> matchers, Path relative) {
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(relative)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compiles every glob once, choosing whether it applies to names or to paths.
+     *
+     * @param globs The patterns to compile.
+     * @return One matcher per pattern.
+     */
+    private static List<PathMatcher> compile(List<String> globs) {
+        List<PathMatcher> matchers = new ArrayList<>(globs.size());
+
+        for (String glob : globs) {
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+
+            if (glob.indexOf('/') < 0) {
+                matchers.add(path -> path.getFileName() != null && matcher.matches(path.getFileName()));
+            } else if (glob.startsWith("**/")) {
+                PathMatcher topLevel = FileSystems.getDefault().getPathMatcher("glob:" + glob.substring(3));
+                matchers.add(path -> matcher.matches(path) || topLevel.matches(path));
+            } else {
+                matchers.add(matcher);
+            }
+        }
+
+        return matchers;
+    }
+}
@@ -0,0 +1,226 @@
+package edu.arsw.codelines;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32C;
+
+/**
+ * A persistent cache of line counts stored next to the scanned tree.
+ * <p>
+ * Each entry is keyed by the path of a file relative to the scanned directory and
+ * remembers the size and modification time the file had when it was counted, plus
+ * an optional CRC32C of its content. A file whose size and time did not change is
+ * not read again. With hashing enabled, a file whose time changed but whose size
+ * did not (as after a fresh checkout) is compared by content before being counted.
+ * <p>
+ * Entries always hold every {@link LineCounts} metric, so a cache filled by one
+ * count type serves the others too. Entries of files that the last scan did not
+ * visit, such as files of another pattern, are kept as long as the file exists, so
+ * runs with different patterns over one tree share a warm cache; deleted files are
+ * dropped when the cache is saved.
+ *
+ * @author Andres Chavarro
+ * @version 1.0
+ * @since 2025-06-12
+ */
+public class LineCountCache {
+
+    /** The name of the cache file created in the scanned directory. */
+    public static final String FILE_NAME = ".codelines-cache";
+
+    private static final String HEADER = "codelines-cache\t1";
+    private static final long NO_HASH = -1L;
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+    private final Path cacheFile;
+    private final boolean hashing;
+    private final Map<String, Entry> previous;
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * The state of a file when it was counted.
+     */
+    private record Entry(long size, long modified, long hash, LineCounts counts) {
+    }
+
+    private LineCountCache(Path root, boolean hashing, Map<String, Entry> previous) {
+        this.root = root;
+        this.cacheFile = root.resolve(FILE_NAME);
+        this.hashing = hashing;
+        this.previous = previous;
+    }
+
+    /**
+     * Loads the cache of a directory, or starts an empty one if there is none.
+     * <p>
+     * A cache file that cannot be understood is ignored and will be overwritten
+     * on the next save.
+     *
+     * @param directory The root of the scanned tree.
+     * @param hashing   true to compare file contents when only the time changed.
+     * @return The cache of the directory.
+     * @throws IOException If the cache file exists but cannot be read.
+     */
+    public static LineCountCache load(Path directory, boolean hashing) throws IOException {
+        Path root = directory.toAbsolutePath().normalize();
+        Path file = root.resolve(FILE_NAME);
+        Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+        if (Files.isRegularFile(file)) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                if (HEADER.equals(reader.readLine())) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        String[] fields = line.split("\t", 8);
+                        entries.put(fields[7], new Entry(Long.parseLong(fields[0]), Long.parseLong(fields[1]),
+                                Long.parseLong(fields[2]), new LineCounts(Integer.parseInt(fields[3]),
+                                        Integer.parseInt(fields[4]), Integer.parseInt(fields[5]),
+                                        Integer.parseInt(fields[6]))));
+                    }
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Warning: Ignoring unreadable cache file " + file);
+                entries.clear();
+            }
+        }
+
+        return new LineCountCache(root, hashing, entries);
+    }
+
+    /**
+     * Returns the counts of a file, counting it only if it changed since it was cached.
+     *
+     * @param file    The file to be measured.
+     * @param counter The function that computes every metric of a changed file.
+     * @return The line counts of the file.
+     * @throws IOException If an I/O error occurs reading the file.
+     */
+    public LineCounts get(Path file, ParallelCounter.FileCounter<LineCounts> counter) throws IOException {
+        String key = root.relativize(file.toAbsolutePath().normalize()).toString();
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+
+        Entry entry = previous.get(key);
+        if (entry != null && entry.size() == size) {
+            if (entry.modified() == modified) {
+                return hit(key, entry);
+            }
+            if (hashing && entry.hash() != NO_HASH && entry.hash() == hash(file)) {
+                return hit(key, new Entry(size, modified, entry.hash(), entry.counts()));
+            }
+        }
+
+        misses.incrementAndGet();
+        LineCounts counts = counter.count(file);
+        current.put(key, new Entry(size, modified, hashing ? hash(file) : NO_HASH, counts));
+        return counts;
+    }
+
+    /**
+     * Tells whether a path is the file where this cache is stored.
+     *
+     * @param file The path of a scanned file.
+     * @return true if the path is the cache file and must not be counted.
+     */
+    public boolean isCacheFile(Path file) {
+        return cacheFile.equals(file.toAbsolutePath().normalize());
+    }
+
+    /**
+     * Writes the entries of every file seen since the cache was loaded, and keeps the
+     * loaded entries of the files that were not seen but still exist.
+     * <p>
+     * The cache is written to a temporary file first and then moved in place, so an
+     * interrupted run never leaves a truncated cache behind.
+     *
+     * @throws IOException If the cache file cannot be written.
+     */
+    public void save() throws IOException {
+        Path temporary = cacheFile.resolveSibling(FILE_NAME + ".tmp");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (Map.Entry<String, Entry> item : current.entrySet()) {
+                write(writer, item.getKey(), item.getValue());
+            }
+            for (Map.Entry<String, Entry> item : previous.entrySet()) {
+                if (!current.containsKey(item.getKey()) && Files.isRegularFile(root.resolve(item.getKey()))) {
+                    write(writer, item.getKey(), item.getValue());
+                }
+            }
+        }
+
+        Files.move(temporary, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void write(BufferedWriter writer, String key, Entry entry) throws IOException {
+        LineCounts counts = entry.counts();
+        writer.write(entry.size() + "\t" + entry.modified() + "\t" + entry.hash() + "\t"
+                + counts.physical() + "\t" + counts.logical() + "\t" + counts.blank() + "\t"
+                + counts.comment() + "\t" + key);
+        writer.newLine();
+    }
+
+    /**
+     * Returns the number of files served from the cache.
+     *
+     * @return The number of cache hits since the cache was loaded.
+     */
+    public int getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of files that had to be counted.
+     *
+     * @return The number of cache misses since the cache was loaded.
+     */
+    public int getMisses() {
+        return misses.get();
+    }
+
+    private LineCounts hit(String key, Entry entry) {
+        hits.incrementAndGet();
+        current.put(key, entry);
+        return entry.counts();
+    }
+
+    /**
+     * Computes the CRC32C of the content of a file.
+     *
+     * @param file The file to be hashed.
+     * @return The checksum of the whole file.
+     * @throws IOException If an I/O error occurs reading the file.
+     */
+    private static long hash(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocate(HASH_BUFFER_SIZE);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+
+        return crc.getValue();
+    }
+}
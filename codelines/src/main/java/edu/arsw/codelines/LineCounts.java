@@ -0,0 +1,61 @@
+package edu.arsw.codelines;
+
+/**
+ * An immutable record with the line metrics of a file or of a group of files.
+ * <p>
+ * Every physical line falls in exactly one of the other three groups: it holds
+ * code (logical), it is blank, or it only holds comments. Counts that were not
+ * requested by the selected count type may be left at zero.
+ *
+ * @param physical The total number of lines.
+ * @param logical  The lines that hold code.
+ * @param blank    The lines that only hold whitespace.
+ * @param comment  The non-blank lines that only hold comments.
+ */
+public record LineCounts(int physical, int logical, int blank, int comment) {
+
+    /** The counts of an empty file, also the identity of {@link #plus(LineCounts)}. */
+    public static final LineCounts ZERO = new LineCounts(0, 0, 0, 0);
+
+    /**
+     * Creates counts that only carry the number of physical lines.
+     *
+     * @param physical The total number of lines.
+     * @return The counts with every other metric at zero.
+     */
+    public static LineCounts ofPhysical(int physical) {
+        return new LineCounts(physical, 0, 0, 0);
+    }
+
+    /**
+     * Creates counts that only carry the number of logical lines.
+     *
+     * @param logical The lines that hold code.
+     * @return The counts with every other metric at zero.
+     */
+    public static LineCounts ofLogical(int logical) {
+        return new LineCounts(0, logical, 0, 0);
+    }
+
+    /**
+     * Adds two counts metric by metric, used to compute totals.
+     *
+     * @param other The counts to add to these.
+     * @return The sum of both counts.
+     */
+    public LineCounts plus(LineCounts other) {
+        return new LineCounts(physical + other.physical, logical + other.logical,
+                blank + other.blank, comment + other.comment);
+    }
+
+    /**
+     * Subtracts two counts metric by metric, used to take a file out of totals.
+     *
+     * @param other The counts to subtract from these.
+     * @return The difference of both counts.
+     */
+    public LineCounts minus(LineCounts other) {
+        return new LineCounts(physical - other.physical, logical - other.logical,
+                blank - other.blank, comment - other.comment);
+    }
+}
@@ -0,0 +1,177 @@
+package edu.arsw.codelines;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A byte-level state machine that produces every {@link LineCounts} metric in a
+ * single pass.
+ * <p>
+ * The scanner is fed with consecutive buffers of the same file and keeps its state
+ * between them, so it works the same over memory-mapped regions or over chunks read
+ * from a channel. Lines end at {@code \n}, {@code \r} or {@code \r\n}. Comments and
+ * string literals are recognized by the transition table of a {@link CommentSyntax},
+ * so the loop does one table lookup per byte whatever the language.
+ *
+ * @author Andres Chavarro
+ * @version 1.0
+ * @since 2025-06-12
+ */
+final class LineScanner {
+
+    /** The size of the buffer used when a file is read instead of mapped. */
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    /** The flags of a table entry that describe the content of a line. */
+    private static final int LINE_FLAGS = CommentSyntax.CODE | CommentSyntax.TEXT;
+
+    private final int[] table;
+    private int state;
+    private int lineFlags;
+    private boolean openLine;
+    private boolean afterCarriageReturn;
+
+    private int physical;
+    private int logical;
+    private int blank;
+    private int comment;
+
+    /**
+     * Creates a scanner for files written in the given syntax.
+     *
+     * @param syntax The comment and string syntax of the scanned file.
+     */
+    LineScanner(CommentSyntax syntax) {
+        this.table = syntax.table();
+    }
+
+    /**
+     * Reads a file through a channel into a small reusable buffer and scans it with
+     * the syntax registered for its extension.
+     *
+     * @param file The file to be measured.
+     * @return All the line metrics of the file.
+     * @throws IOException If an I/O error occurs reading the file.
+     */
+    static LineCounts read(Path file) throws IOException {
+        LineScanner scanner = new LineScanner(SyntaxRegistry.forFile(file));
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                scanner.scan(buffer);
+                buffer.clear();
+            }
+        }
+
+        return scanner.finish();
+    }
+
+    /**
+     * Counts only the physical lines of a file, reading it through the same small
+     * buffer as {@link #read(Path)}. The line terminators are found byte by byte, so
+     * no characters are decoded and files in any encoding can be counted.
+     *
+     * @param file The file to be measured.
+     * @return The total number of lines in the file.
+     * @throws IOException If an I/O error occurs reading the file.
+     */
+    static int physical(Path file) throws IOException {
+        int lines = 0;
+        boolean openLine = false;
+        boolean afterCarriageReturn = false;
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) > 0) {
+                byte[] bytes = buffer.array();
+                int limit = buffer.position();
+
+                for (int i = 0; i < limit; i++) {
+                    byte b = bytes[i];
+                    if (b == '\n') {
+                        if (!afterCarriageReturn) {
+                            lines++;
+                        }
+                        afterCarriageReturn = false;
+                        openLine = false;
+                    } else if (b == '\r') {
+                        lines++;
+                        afterCarriageReturn = true;
+                        openLine = false;
+                    } else {
+                        afterCarriageReturn = false;
+                        openLine = true;
+                    }
+                }
+                buffer.clear();
+            }
+        }
+
+        return openLine ? lines + 1 : lines;
+    }
+
+    /**
+     * Scans the remaining bytes of a buffer without changing its position.
+     *
+     * @param buffer The next piece of the file.
+     */
+    void scan(ByteBuffer buffer) {
+        int[] transitions = table;
+        int current = state;
+        int limit = buffer.limit();
+
+        for (int i = buffer.position(); i < limit; i++) {
+            int b = buffer.get(i) & 0xFF;
+            int entry = transitions[current << 8 | b];
+            current = entry >>> CommentSyntax.FLAG_BITS;
+
+            if ((entry & CommentSyntax.END_OF_LINE) != 0) {
+                lineFlags |= entry & LINE_FLAGS;
+                if (b == '\r' || !afterCarriageReturn) {
+                    endLine();
+                }
+                afterCarriageReturn = b == '\r';
+            } else {
+                lineFlags |= entry & LINE_FLAGS;
+                openLine = true;
+                afterCarriageReturn = false;
+            }
+        }
+
+        state = current;
+    }
+
+    /**
+     * Closes the last line if the file does not end with a terminator.
+     *
+     * @return All the line metrics of the scanned bytes.
+     */
+    LineCounts finish() {
+        if (openLine) {
+            int entry = table[state << 8 | '\n'];
+            state = entry >>> CommentSyntax.FLAG_BITS;
+            lineFlags |= entry & LINE_FLAGS;
+            endLine();
+        }
+        return new LineCounts(physical, logical, blank, comment);
+    }
+
+    private void endLine() {
+        physical++;
+        if ((lineFlags & CommentSyntax.CODE) != 0) {
+            logical++;
+        } else if ((lineFlags & CommentSyntax.TEXT) != 0) {
+            comment++;
+        } else {
+            blank++;
+        }
+
+        lineFlags = 0;
+        openLine = false;
+    }
+}
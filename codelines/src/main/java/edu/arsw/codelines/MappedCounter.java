@@ -0,0 +1,125 @@
+package edu.arsw.codelines;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A counting backend that works directly on the bytes of memory-mapped files.
+ * <p>
+ * Files are mapped with {@link FileChannel#map} and scanned byte by byte, so no
+ * characters are decoded and no line Strings are created. Physical lines are
+ * counted from the line terminators ({@code \n}, {@code \r} and {@code \r\n}),
+ * which gives the same result as {@link CountLines#physical(String)}. The other
+ * metrics come from the {@link LineScanner} state machine, which follows the
+ * comment syntax of the file's language; a line counts as code when it has a
+ * non-blank byte outside of a comment.
+ *
+ * @author Andres Chavarro
+ * @version 1.0
+ * @since 2025-06-12
+ */
+public final class MappedCounter {
+
+    /** The largest region mapped at once, files bigger than this are mapped in pieces. */
+    private static final long REGION_SIZE = 1L << 30;
+
+    private MappedCounter() {
+        // Utility class with static methods only.
+    }
+
+    /**
+     * Counts the total number of physical lines in a given file.
+     *
+     * @param filePath The path to the file to be measured.
+     * @return The total number of lines in the file.
+     * @throws IOException If an I/O error occurs reading the file.
+     */
+    public static int physical(String filePath) throws IOException {
+        int lines = 0;
+        boolean openLine = false;
+        boolean afterCarriageReturn = false;
+
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            for (long position = 0; position < size; position += REGION_SIZE) {
+                MappedByteBuffer region = map(channel, position, size);
+                int limit = region.limit();
+
+                for (int i = 0; i < limit; i++) {
+                    byte b = region.get(i);
+                    if (b == '\n') {
+                        if (!afterCarriageReturn) {
+                            lines++;
+                        }
+                        afterCarriageReturn = false;
+                        openLine = false;
+                    } else if (b == '\r') {
+                        lines++;
+                        afterCarriageReturn = true;
+                        openLine = false;
+                    } else {
+                        afterCarriageReturn = false;
+                        openLine = true;
+                    }
+                }
+            }
+        }
+
+        return openLine ? lines + 1 : lines;
+    }
+
+    /**
+     * Counts the logical lines of code (LOC) in a file.
+     * <p>
+     * Blank lines, lines that only hold comments and the inside of block comments
+     * are ignored. Code that shares a line with a comment is counted.
+     *
+     * @param filePath The path to the source code file.
+     * @return The total number of logical lines of code.
+     * @throws IOException If an I/O error occurs reading the file.
+     */
+    public static int logical(String filePath) throws IOException {
+        return count(filePath).logical();
+    }
+
+    /**
+     * Counts physical, logical, blank and comment lines in a single pass over the
+     * mapped file.
+     *
+     * @param filePath The path to the file to be measured.
+     * @return All the line metrics of the file.
+     * @throws IOException If an I/O error occurs reading the file.
+     */
+    public static LineCounts count(String filePath) throws IOException {
+        Path file = Paths.get(filePath);
+        LineScanner scanner = new LineScanner(SyntaxRegistry.forFile(file));
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            for (long position = 0; position < size; position += REGION_SIZE) {
+                scanner.scan(map(channel, position, size));
+            }
+        }
+
+        return scanner.finish();
+    }
+
+    /**
+     * Maps the region of a file that starts at the given position.
+     *
+     * @param channel  The channel of the file being scanned.
+     * @param position The offset of the region within the file.
+     * @param size     The total size of the file.
+     * @return A read-only buffer over at most {@link #REGION_SIZE} bytes.
+     * @throws IOException If the region cannot be mapped.
+     */
+    private static MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(REGION_SIZE, size - position));
+    }
+}
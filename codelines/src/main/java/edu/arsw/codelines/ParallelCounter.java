@@ -0,0 +1,193 @@
+package edu.arsw.codelines;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A parallel counting engine backed by a work-stealing {@link ForkJoinPool}.
+ * <p>
+ * Every directory is handled by its own fork/join task, which forks a subtask for
+ * each subdirectory and each regular file as soon as they are listed. Counting
+ * therefore starts while the rest of the tree is still being discovered, and idle
+ * workers steal pending files from busy ones. Symbolic links are not followed.
+ * Per-file results are merged into a map sorted by path, so the output is the
+ * same regardless of the thread count.
+ *
+ * @author Andres Chavarro
+ * @version 1.0
+ * @since 2025-06-12
+ */
+public class ParallelCounter implements AutoCloseable {
+
+    /**
+     * A counting function applied to every regular file found by the engine.
+     *
+     * @param <R> The type of the per-file result.
+     */
+    @FunctionalInterface
+    public interface FileCounter<R> {
+
+        /**
+         * Counts the lines of a single file.
+         *
+         * @param file The file to be measured.
+         * @return The result for the file, or null to leave the file out of the results.
+         * @throws IOException If an I/O error occurs reading the file.
+         */
+        R count(Path file) throws IOException;
+    }
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates an engine with a pool sized to the available processors.
+     */
+    public ParallelCounter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates an engine with a pool of the given size.
+     *
+     * @param threads The number of worker threads, at least one.
+     * @throws IllegalArgumentException If threads is lower than one.
+     */
+    public ParallelCounter(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads must be positive: " + threads);
+        }
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Counts every regular file below a directory.
+     *
+     * @param root    The directory to scan recursively.
+     * @param counter The function applied to each file.
+     * @param <R>     The type of the per-file result.
+     * @return The per-file results, sorted by path.
+     * @throws IOException If a directory cannot be listed or a file cannot be read.
+     */
+    public <R> SortedMap<String, R> scan(Path root, FileCounter<R> counter) throws IOException {
+        return scan(root, GlobFilter.ALL, counter);
+    }
+
+    /**
+     * Counts the regular files below a directory that are accepted by a filter.
+     * <p>
+     * Directories rejected by the filter are pruned and never listed.
+     *
+     * @param root    The directory to scan recursively.
+     * @param filter  The filter that selects the files and directories to visit.
+     * @param counter The function applied to each accepted file.
+     * @param <R>     The type of the per-file result.
+     * @return The per-file results, sorted by path.
+     * @throws IOException If a directory cannot be listed or a file cannot be read.
+     */
+    public <R> SortedMap<String, R> scan(Path root, GlobFilter filter, FileCounter<R> counter) throws IOException {
+        ConcurrentSkipListMap<String, R> results = new ConcurrentSkipListMap<>();
+        run(new DirectoryTask<>(root, root, filter, counter, results));
+        return results;
+    }
+
+    /**
+     * Shuts the pool down once the submitted work is done.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private void run(ForkJoinTask<?> task) throws IOException {
+        try {
+            pool.invoke(task);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Lists one directory and forks a task for every accepted entry found in it.
+     */
+    private static final class DirectoryTask<R> extends RecursiveAction {
+        private final Path root;
+        private final Path directory;
+        private final GlobFilter filter;
+        private final FileCounter<R> counter;
+        private final ConcurrentSkipListMap<String, R> results;
+
+        DirectoryTask(Path root, Path directory, GlobFilter filter, FileCounter<R> counter,
+                ConcurrentSkipListMap<String, R> results) {
+            this.root = root;
+            this.directory = directory;
+            this.filter = filter;
+            this.counter = counter;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            List<ForkJoinTask<Void>> subtasks = new ArrayList<>();
+
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class,
+                            LinkOption.NOFOLLOW_LINKS);
+
+                    if (attributes.isDirectory()) {
+                        if (filter.acceptsDirectory(root.relativize(entry))) {
+                            subtasks.add(new DirectoryTask<>(root, entry, filter, counter, results).fork());
+                        }
+                    } else if (attributes.isRegularFile() && filter.acceptsFile(root.relativize(entry))) {
+                        subtasks.add(new FileTask<>(entry, counter, results).fork());
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            for (ForkJoinTask<Void> subtask : subtasks) {
+                subtask.join();
+            }
+        }
+    }
+
+    /**
+     * Counts a single file and stores its result.
+     */
+    private static final class FileTask<R> extends RecursiveAction {
+        private final Path file;
+        private final FileCounter<R> counter;
+        private final ConcurrentSkipListMap<String, R> results;
+
+        FileTask(Path file, FileCounter<R> counter, ConcurrentSkipListMap<String, R> results) {
+            this.file = file;
+            this.counter = counter;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                R result = counter.count(file);
+                if (result != null) {
+                    results.put(file.toString(), result);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package edu.arsw.codelines;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The settings that control how {@link CountLines#processPath(String, String, ScanOptions)}
+ * scans files.
+ * <p>
+ * Every setter returns the same instance, so options can be chained when they are
+ * built from the command line.
+ *
+ * @author Andres Chavarro
+ * @version 1.0
+ * @since 2025-06-12
+ */
+public class ScanOptions {
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean mapped;
+    private boolean cache;
+    private boolean hash;
+    private final List<String> excludes = new ArrayList<>();
+    private String format = "text";
+    private Path output;
+    private boolean watch;
+
+    /**
+     * Returns the number of worker threads used for directories and patterns.
+     *
+     * @return The size of the counting pool, one per core by default.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets the number of worker threads used for directories and patterns.
+     *
+     * @param threads The size of the counting pool, at least one.
+     * @return This instance.
+     * @throws IllegalArgumentException If threads is lower than one.
+     */
+    public ScanOptions threads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads must be positive: " + threads);
+        }
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Tells whether files are counted by the memory-mapped {@link MappedCounter} backend.
+     *
+     * @return true to use the memory-mapped backend, false to read files through a buffer.
+     */
+    public boolean isMapped() {
+        return mapped;
+    }
+
+    /**
+     * Selects the counting backend.
+     *
+     * @param mapped true to use the memory-mapped {@link MappedCounter} backend.
+     * @return This instance.
+     */
+    public ScanOptions mapped(boolean mapped) {
+        this.mapped = mapped;
+        return this;
+    }
+
+    /**
+     * Tells whether directories and patterns use a {@link LineCountCache}.
+     *
+     * @return true to skip files that did not change since the last scan.
+     */
+    public boolean isCache() {
+        return cache;
+    }
+
+    /**
+     * Enables or disables the persistent line count cache.
+     *
+     * @param cache true to keep a {@link LineCountCache} in the scanned directory.
+     * @return This instance.
+     */
+    public ScanOptions cache(boolean cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    /**
+     * Tells whether the cache compares file contents when only the time changed.
+     *
+     * @return true to validate cache entries with a content hash.
+     */
+    public boolean isHash() {
+        return hash;
+    }
+
+    /**
+     * Enables or disables content hashing in the line count cache.
+     *
+     * @param hash true to validate cache entries with a content hash.
+     * @return This instance.
+     */
+    public ScanOptions hash(boolean hash) {
+        this.hash = hash;
+        return this;
+    }
+
+    /**
+     * Returns the globs of the files and directories left out of the scan.
+     *
+     * @return The exclude patterns, in the order they were added.
+     */
+    public List<String> getExcludes() {
+        return excludes;
+    }
+
+    /**
+     * Leaves the files and directories matching a glob out of the scan.
+     *
+     * @param glob A pattern in the syntax accepted by {@link GlobFilter}.
+     * @return This instance.
+     */
+    public ScanOptions exclude(String glob) {
+        excludes.add(glob);
+        return this;
+    }
+
+    /**
+     * Returns the format of the report.
+     *
+     * @return One of {@link CountReport#FORMATS}, "text" by default.
+     */
+    public String getFormat() {
+        return format;
+    }
+
+    /**
+     * Sets the format of the report.
+     *
+     * @param format One of {@link CountReport#FORMATS}.
+     * @return This instance.
+     * @throws IllegalArgumentException If the format is not supported.
+     */
+    public ScanOptions format(String format) {
+        if (!CountReport.FORMATS.contains(format.toLowerCase())) {
+            throw new IllegalArgumentException("Unsupported report format: " + format);
+        }
+        this.format = format.toLowerCase();
+        return this;
+    }
+
+    /**
+     * Returns the file the report is written to.
+     *
+     * @return The output file, or null to write to the console.
+     */
+    public Path getOutput() {
+        return output;
+    }
+
+    /**
+     * Sets the file the report is written to.
+     *
+     * @param output The output file, or null to write to the console.
+     * @return This instance.
+     */
+    public ScanOptions output(Path output) {
+        this.output = output;
+        return this;
+    }
+
+    /**
+     * Tells whether the counts are kept up to date after the first report.
+     *
+     * @return true to watch directories and patterns for changes.
+     */
+    public boolean isWatch() {
+        return watch;
+    }
+
+    /**
+     * Enables or disables watch mode.
+     *
+     * @param watch true to keep counting the files that change after the first report.
+     * @return This instance.
+     */
+    public ScanOptions watch(boolean watch) {
+        this.watch = watch;
+        return this;
+    }
+}
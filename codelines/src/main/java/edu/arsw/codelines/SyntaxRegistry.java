@@ -0,0 +1,112 @@
+package edu.arsw.codelines;
+
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A registry that maps file extensions to the {@link CommentSyntax} used to count
+ * their logical lines.
+ * <p>
+ * Syntaxes are compiled once when the registry is loaded, so choosing one for a
+ * file is a single map lookup on its extension. Files whose extension is not
+ * registered are read with the {@link #C_LIKE} syntax, the one the counter always
+ * used. More languages can be added at runtime with {@link #register}.
+ *
+ * @author Andres Chavarro
+ * @version 1.0
+ * @since 2025-06-12
+ */
+public final class SyntaxRegistry {
+
+    /** Java, C, C++, C#, JavaScript, TypeScript, Go, Kotlin, Rust and friends. */
+    public static final CommentSyntax C_LIKE = new CommentSyntax("c-like",
+            new String[] { "//" }, new String[][] { { "/*", "*/" } }, "\"'`");
+
+    /** Python, with docstrings counted as comments. */
+    public static final CommentSyntax PYTHON = new CommentSyntax("python",
+            new String[] { "#" }, new String[][] { { "\"\"\"", "\"\"\"" }, { "'''", "'''" } }, "\"'");
+
+    /** Shell scripts, YAML, TOML, Ruby, Perl, R and configuration files. */
+    public static final CommentSyntax HASH = new CommentSyntax("hash",
+            new String[] { "#" }, new String[][] {}, "\"'");
+
+    /** SQL dialects. */
+    public static final CommentSyntax SQL = new CommentSyntax("sql",
+            new String[] { "--" }, new String[][] { { "/*", "*/" } }, "\"'");
+
+    /** Lua, whose block comments start like its line comments. */
+    public static final CommentSyntax LUA = new CommentSyntax("lua",
+            new String[] { "--" }, new String[][] { { "--[[", "]]" } }, "\"'");
+
+    /** HTML, XML and other markup, where quotes are plain text. */
+    public static final CommentSyntax MARKUP = new CommentSyntax("markup",
+            new String[] {}, new String[][] { { "<!--", "-->" } }, "");
+
+    /** Plain CSS, which has no single-line comments. */
+    public static final CommentSyntax CSS = new CommentSyntax("css",
+            new String[] {}, new String[][] { { "/*", "*/" } }, "\"'");
+
+    /** Formats without comments, where every non-blank line counts. */
+    public static final CommentSyntax PLAIN = new CommentSyntax("plain",
+            new String[] {}, new String[][] {}, "");
+
+    private static final Map<String, CommentSyntax> BY_EXTENSION = new ConcurrentHashMap<>();
+
+    static {
+        for (String extension : new String[] { "java", "c", "h", "cc", "cpp", "cxx", "hpp", "cs", "js", "jsx",
+                "mjs", "ts", "tsx", "go", "kt", "kts", "scala", "swift", "rs", "dart", "groovy", "gradle", "scss",
+                "less", "proto" }) {
+            BY_EXTENSION.put(extension, C_LIKE);
+        }
+        for (String extension : new String[] { "py", "pyw", "pyi" }) {
+            BY_EXTENSION.put(extension, PYTHON);
+        }
+        for (String extension : new String[] { "sh", "bash", "zsh", "yml", "yaml", "toml", "rb", "pl", "r",
+                "properties", "conf", "ini", "dockerfile", "makefile", "gitignore" }) {
+            BY_EXTENSION.put(extension, HASH);
+        }
+        BY_EXTENSION.put("sql", SQL);
+        BY_EXTENSION.put("lua", LUA);
+        for (String extension : new String[] { "html", "htm", "xhtml", "xml", "xsd", "svg", "vue" }) {
+            BY_EXTENSION.put(extension, MARKUP);
+        }
+        BY_EXTENSION.put("css", CSS);
+        for (String extension : new String[] { "txt", "md", "json", "csv" }) {
+            BY_EXTENSION.put(extension, PLAIN);
+        }
+    }
+
+    private SyntaxRegistry() {
+        // Utility class with static methods only.
+    }
+
+    /**
+     * Registers or replaces the syntax of an extension.
+     *
+     * @param extension The extension without the dot, or the whole name of files
+     *                  without one (such as "makefile"), case-insensitive.
+     * @param syntax    The syntax used for files with that extension.
+     */
+    public static void register(String extension, CommentSyntax syntax) {
+        BY_EXTENSION.put(extension.toLowerCase(Locale.ROOT), syntax);
+    }
+
+    /**
+     * Returns the syntax used to count a file.
+     *
+     * @param file The file to be measured.
+     * @return The syntax registered for its extension, or {@link #C_LIKE}.
+     */
+    public static CommentSyntax forFile(Path file) {
+        Path fileName = file.getFileName();
+        if (fileName == null) {
+            return C_LIKE;
+        }
+        String name = fileName.toString();
+        int dot = name.lastIndexOf('.');
+        String extension = (dot >= 0 ? name.substring(dot + 1) : name).toLowerCase(Locale.ROOT);
+        return BY_EXTENSION.getOrDefault(extension, C_LIKE);
+    }
+}
@@ -4,12 +4,24 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 /**
  * Test suite for the CountLines utility class.
@@ -41,6 +53,41 @@ class CountLinesTest {
         assertEquals(0, lineCount);
     }
 
+    @Test
+    void should_countLikeAll_when_fileIsNotValidUtf8() throws IOException {
+        Path file = tempDir.resolve("binary.txt");
+        Files.write(file, new byte[] { 'a', (byte) 0xC3, '\n', (byte) 0xFF, (byte) 0xFE, '\r', 'b' });
+
+        assertEquals(3, CountLines.physical(file.toString()));
+        assertEquals(CountLines.all(file.toString()).physical(), CountLines.physical(file.toString()));
+    }
+
+    @Test
+    void should_closeEveryFile_when_scanningMoreFilesThanTheDescriptorLimit() throws Exception {
+        assumeTrue(Files.isExecutable(Paths.get("/bin/sh")), "Needs a POSIX shell to lower the descriptor limit");
+        int descriptorLimit = 256;
+        Path source = Files.createDirectories(tempDir.resolve("many"));
+        for (int i = 0; i < descriptorLimit * 4; i++) {
+            Files.writeString(source.resolve("f" + i + ".java"), "line 1\nline 2\n");
+        }
+        Path report = tempDir.resolve("report.csv");
+
+        // A child JVM, since the limit of the running one cannot be lowered.
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String classes = Paths.get(CountLines.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                .toString();
+        Process child = new ProcessBuilder("/bin/sh", "-c", "ulimit -n " + descriptorLimit + " && exec \"$0\" \"$@\"",
+                java, "-cp", classes, CodelinesApplication.class.getName(), "phy", source.toString(),
+                "--threads", "4", "--format", "csv", "--output", report.toString())
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(child.getInputStream().readAllBytes());
+
+        assertTrue(child.waitFor(60, TimeUnit.SECONDS));
+        assertFalse(output.contains("Too many open files"), output);
+        assertTrue(Files.readString(report).contains("total," + source + "," + descriptorLimit * 4 + ","), output);
+    }
+
     //--- Tests for logical method ---
 
     @Test
@@ -114,4 +161,429 @@ class CountLinesTest {
         assertTrue(foundFiles.stream().anyMatch(p -> p.endsWith("File1.java")));
         assertTrue(foundFiles.stream().anyMatch(p -> p.endsWith("File2.java")));
     }
+
+    @Test
+    void should_findFiles_with_bracesDoubleStarAndExcludes() throws IOException {
+        Path main = Files.createDirectories(tempDir.resolve("src").resolve("main"));
+        Path generated = Files.createDirectories(tempDir.resolve("src").resolve("generated"));
+        Files.createFile(tempDir.resolve("Top.java"));
+        Files.createFile(main.resolve("App.java"));
+        Files.createFile(main.resolve("App.kt"));
+        Files.createFile(main.resolve("notes.txt"));
+        Files.createFile(generated.resolve("Gen.java"));
+
+        GlobFilter filter = new GlobFilter(List.of("**/*.{java,kt}"), List.of("generated"));
+        List<String> foundFiles = CountLines.findFiles(tempDir.toString(), filter);
+
+        assertEquals(3, foundFiles.size());
+        assertTrue(foundFiles.stream().anyMatch(p -> p.endsWith("Top.java")));
+        assertTrue(foundFiles.stream().anyMatch(p -> p.endsWith("App.java")));
+        assertTrue(foundFiles.stream().anyMatch(p -> p.endsWith("App.kt")));
+    }
+
+    @Test
+    void should_pruneBuildAndVcsDirectories() throws IOException {
+        for (String pruned : List.of(".git", "node_modules", "target")) {
+            Files.createFile(Files.createDirectories(tempDir.resolve(pruned).resolve("nested")).resolve("X.java"));
+        }
+        Files.createFile(tempDir.resolve("Kept.java"));
+
+        List<String> foundFiles = CountLines.findFiles(tempDir.toString(), "*.java");
+
+        assertEquals(1, foundFiles.size());
+        assertTrue(foundFiles.get(0).endsWith("Kept.java"));
+    }
+
+    //--- Tests for GlobFilter ---
+
+    @Test
+    void should_applyTheSameFilter_as_findFiles() throws IOException {
+        Files.createFile(Files.createDirectories(tempDir.resolve("target")).resolve("Built.java"));
+        Files.writeString(Files.createDirectories(tempDir.resolve("src")).resolve("Main.java"), "x\n");
+        Files.writeString(tempDir.resolve("README.md"), "# Title\n");
+        GlobFilter filter = new GlobFilter(List.of("*.java"), List.of());
+
+        try (ParallelCounter counter = new ParallelCounter(2)) {
+            Map<String, Integer> counts = counter.scan(tempDir, filter, path -> CountLines.physical(path.toString()));
+
+            assertEquals(CountLines.findFiles(tempDir.toString(), filter), List.copyOf(counts.keySet()));
+        }
+    }
+
+    @Test
+    void should_skipCacheFiles_when_cacheIsNotEnabled() throws IOException {
+        Files.writeString(tempDir.resolve("Main.java"), "x\n");
+        Files.writeString(tempDir.resolve(LineCountCache.FILE_NAME), "codelines-cache\t1\n");
+        Files.writeString(Files.createDirectories(tempDir.resolve("sub")).resolve(LineCountCache.FILE_NAME + ".tmp"),
+                "codelines-cache\t1\n");
+
+        List<String> foundFiles = CountLines.findFiles(tempDir.toString(), "*");
+
+        assertEquals(List.of(tempDir.resolve("Main.java").toString()), foundFiles);
+    }
+
+    //--- Tests for ParallelCounter ---
+
+    @Test
+    void should_countEveryFile_when_scanningNestedDirectories() throws IOException {
+        Path nested = Files.createDirectories(tempDir.resolve("a").resolve("b"));
+        Files.writeString(tempDir.resolve("Root.java"), "line 1\nline 2");
+        Files.writeString(nested.resolve("Deep.java"), "line 1\nline 2\nline 3");
+
+        try (ParallelCounter counter = new ParallelCounter(4)) {
+            Map<String, Integer> counts = counter.scan(tempDir, path -> CountLines.physical(path.toString()));
+
+            assertEquals(2, counts.size());
+            assertEquals(2, counts.get(tempDir.resolve("Root.java").toString()));
+            assertEquals(3, counts.get(nested.resolve("Deep.java").toString()));
+        }
+    }
+
+    @Test
+    void should_returnSortedResults_regardlessOfThreadCount() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            Files.writeString(tempDir.resolve("File" + i + ".java"), "x\n".repeat(i));
+        }
+
+        try (ParallelCounter single = new ParallelCounter(1); ParallelCounter many = new ParallelCounter(8)) {
+            Map<String, Integer> sequential = single.scan(tempDir, path -> CountLines.physical(path.toString()));
+            Map<String, Integer> parallel = many.scan(tempDir, path -> CountLines.physical(path.toString()));
+
+            assertEquals(List.copyOf(sequential.keySet()), List.copyOf(parallel.keySet()));
+            assertEquals(sequential, parallel);
+        }
+    }
+
+    //--- Tests for MappedCounter ---
+
+    @Test
+    void should_matchPhysicalCount_for_everyLineTerminator() throws IOException {
+        String[] contents = { "", "one", "one\n", "one\ntwo", "one\r\ntwo\r\n", "one\rtwo", "\n\n\n", "a\r\n\r\nb" };
+
+        for (int i = 0; i < contents.length; i++) {
+            Path file = tempDir.resolve("terminators" + i + ".txt");
+            Files.writeString(file, contents[i]);
+
+            assertEquals(CountLines.physical(file.toString()), MappedCounter.physical(file.toString()),
+                    "Physical count differs for content #" + i);
+        }
+    }
+
+    @Test
+    void should_matchLogicalCount_for_commentedSource() throws IOException {
+        String content = "/*\n" +
+                         " * Header comment.\n" +
+                         " */\n" +
+                         "package com.example;\n" +
+                         "\n" +
+                         "public class Main { // trailing\n" +
+                         "    // only a comment\n" +
+                         "    int a = 4 / 2; /* inline */\n" +
+                         "    /* start\n" +
+                         "       end */ int b;\n" +
+                         "}\n";
+        Path file = tempDir.resolve("Commented.java");
+        Files.writeString(file, content);
+
+        assertEquals(CountLines.logical(file.toString()), MappedCounter.logical(file.toString()));
+        assertEquals(5, MappedCounter.logical(file.toString()));
+    }
+
+    @Test
+    void should_countCode_when_fileEndsWithoutNewline() throws IOException {
+        Path file = tempDir.resolve("NoNewline.java");
+        Files.writeString(file, "int x = 1; /* c */\r\nint y = x /");
+
+        assertEquals(2, MappedCounter.logical(file.toString()));
+        assertEquals(2, MappedCounter.physical(file.toString()));
+    }
+
+    //--- Tests for all method ---
+
+    @Test
+    void should_countEveryMetric_in_singlePass() throws IOException {
+        String content = "/**\n" +
+                         " * Javadoc.\n" +
+                         " */\n" +
+                         "public class Test {\n" +
+                         "\n" +
+                         "    // comment\n" +
+                         "    int x; // trailing\n" +
+                         "   \t\n" +
+                         "}";
+        Path file = tempDir.resolve("Metrics.java");
+        Files.writeString(file, content);
+
+        LineCounts counts = CountLines.all(file.toString());
+
+        assertEquals(new LineCounts(9, 3, 2, 4), counts);
+        assertEquals(CountLines.physical(file.toString()), counts.physical());
+        assertEquals(counts.physical(), counts.logical() + counts.blank() + counts.comment());
+    }
+
+    @Test
+    void should_giveSameMetrics_when_readOrMapped() throws IOException {
+        Path file = tempDir.resolve("Windows.java");
+        Files.writeString(file, "int a;\r\n\r\n/* c */\r\nint b; /* d\r\n e */\r\n");
+
+        assertEquals(new LineCounts(5, 2, 1, 2), CountLines.all(file.toString()));
+        assertEquals(CountLines.all(file.toString()), MappedCounter.count(file.toString()));
+    }
+
+    //--- Tests for SyntaxRegistry ---
+
+    @Test
+    void should_countCommentMarkers_as_code_when_insideStrings() throws IOException {
+        Path file = tempDir.resolve("Urls.java");
+        Files.writeString(file, "String url = \"http://example.com\";\n" +
+                                "String open = \"/*\";\n" +
+                                "char quote = '\\'';\n" +
+                                "int x; // \"not a string\n" +
+                                "// only a comment\n");
+
+        assertEquals(new LineCounts(5, 4, 0, 1), CountLines.all(file.toString()));
+    }
+
+    @Test
+    void should_useHashComments_and_docstrings_for_python() throws IOException {
+        Path file = tempDir.resolve("script.py");
+        Files.writeString(file, "# comment\n" +
+                                "\"\"\"\n" +
+                                "Module docstring // not C\n" +
+                                "\"\"\"\n" +
+                                "x = '#' # trailing\n" +
+                                "\n" +
+                                "print(x)\n");
+
+        assertEquals(new LineCounts(7, 2, 1, 4), CountLines.all(file.toString()));
+    }
+
+    @Test
+    void should_useLanguageSpecificMarkers_for_sqlLuaAndMarkup() throws IOException {
+        Path sql = tempDir.resolve("query.sql");
+        Files.writeString(sql, "-- comment\nSELECT '--' FROM t; /* c */\n");
+        Path lua = tempDir.resolve("main.lua");
+        Files.writeString(lua, "--[[ block\nstill ]] x = 1\n-- line\n");
+        Path html = tempDir.resolve("index.html");
+        Files.writeString(html, "<!-- header\n-->\n<p>Don't // stop</p>\n");
+
+        assertEquals(new LineCounts(2, 1, 0, 1), CountLines.all(sql.toString()));
+        assertEquals(new LineCounts(3, 1, 0, 2), CountLines.all(lua.toString()));
+        assertEquals(new LineCounts(3, 1, 0, 2), CountLines.all(html.toString()));
+        assertEquals(CountLines.all(lua.toString()), MappedCounter.count(lua.toString()));
+    }
+
+    @Test
+    void should_fallBackToCLikeSyntax_when_extensionIsUnknown() throws IOException {
+        Path file = tempDir.resolve("code.unknown");
+        Files.writeString(file, "// comment\n# code\n");
+
+        assertEquals(SyntaxRegistry.C_LIKE, SyntaxRegistry.forFile(file));
+        assertEquals(1, CountLines.logical(file.toString()));
+
+        SyntaxRegistry.register("UNKNOWN", SyntaxRegistry.HASH);
+        try {
+            assertEquals(SyntaxRegistry.HASH, SyntaxRegistry.forFile(file));
+            assertEquals(1, CountLines.logical(file.toString()));
+            assertEquals(1, CountLines.all(file.toString()).comment());
+        } finally {
+            SyntaxRegistry.register("unknown", SyntaxRegistry.C_LIKE);
+        }
+    }
+
+    //--- Tests for LineCountCache ---
+
+    @Test
+    void should_reuseCachedCounts_when_fileIsUnchanged() throws IOException {
+        Path file = tempDir.resolve("Cached.java");
+        Files.writeString(file, "int a;\n// b\n");
+
+        LineCountCache cold = LineCountCache.load(tempDir, false);
+        assertEquals(new LineCounts(2, 1, 0, 1), cold.get(file, p -> CountLines.all(p.toString())));
+        cold.save();
+
+        LineCountCache warm = LineCountCache.load(tempDir, false);
+        LineCounts counts = warm.get(file, p -> {
+            throw new AssertionError("An unchanged file must not be counted again");
+        });
+
+        assertEquals(new LineCounts(2, 1, 0, 1), counts);
+        assertEquals(1, warm.getHits());
+        assertEquals(0, warm.getMisses());
+        assertTrue(warm.isCacheFile(tempDir.resolve(LineCountCache.FILE_NAME)));
+    }
+
+    @Test
+    void should_recount_when_fileChanges() throws IOException {
+        Path file = tempDir.resolve("Changed.java");
+        Files.writeString(file, "int a;\n");
+
+        LineCountCache cold = LineCountCache.load(tempDir, false);
+        cold.get(file, p -> CountLines.all(p.toString()));
+        cold.save();
+
+        Files.writeString(file, "int a;\nint b;\n");
+        LineCountCache warm = LineCountCache.load(tempDir, false);
+
+        assertEquals(2, warm.get(file, p -> CountLines.all(p.toString())).logical());
+        assertEquals(1, warm.getMisses());
+    }
+
+    @Test
+    void should_matchByContentHash_when_onlyTheTimeChanges() throws IOException {
+        Path file = tempDir.resolve("Touched.java");
+        Files.writeString(file, "int a;\n");
+
+        LineCountCache cold = LineCountCache.load(tempDir, true);
+        cold.get(file, p -> CountLines.all(p.toString()));
+        cold.save();
+
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 60_000));
+        LineCountCache warm = LineCountCache.load(tempDir, true);
+        warm.get(file, p -> {
+            throw new AssertionError("A file with the same content must not be counted again");
+        });
+
+        assertEquals(1, warm.getHits());
+    }
+
+    @Test
+    void should_keepEntriesOfOtherPatterns_when_savingTheCache() throws IOException {
+        Files.writeString(tempDir.resolve("a.txt"), "text\n");
+        Files.writeString(tempDir.resolve("b.md"), "# Title\n\nBody\n");
+        Path deleted = tempDir.resolve("c.md");
+        Files.writeString(deleted, "gone\n");
+        GlobFilter text = new GlobFilter(List.of("*.txt"), List.of());
+        GlobFilter markdown = new GlobFilter(List.of("*.md"), List.of());
+
+        LineCountCache first = scanCached(text);
+        LineCountCache second = scanCached(markdown);
+        Files.delete(deleted);
+        LineCountCache third = scanCached(text);
+        LineCountCache fourth = scanCached(markdown);
+
+        assertEquals(1, first.getMisses());
+        assertEquals(2, second.getMisses());
+        assertEquals(1, third.getHits());
+        assertEquals(0, third.getMisses());
+        assertEquals(1, fourth.getHits());
+        assertEquals(0, fourth.getMisses());
+        assertFalse(Files.readString(tempDir.resolve(LineCountCache.FILE_NAME)).contains("c.md"));
+    }
+
+    private LineCountCache scanCached(GlobFilter filter) throws IOException {
+        LineCountCache cache = LineCountCache.load(tempDir, false);
+        try (ParallelCounter counter = new ParallelCounter(2)) {
+            counter.scan(tempDir, filter, file -> cache.get(file, p -> CountLines.all(p.toString())));
+        }
+        cache.save();
+        return cache;
+    }
+
+    //--- Tests for CountWatcher ---
+
+    @Test
+    void should_updateTotals_when_filesAreCreatedModifiedOrDeleted() throws Exception {
+        Path kept = tempDir.resolve("Kept.java");
+        Path removed = tempDir.resolve("Removed.java");
+        Files.writeString(kept, "int a;\n");
+        Files.writeString(removed, "int b;\nint c;\n");
+        GlobFilter filter = new GlobFilter(List.of("*.java"), List.of());
+
+        SortedMap<String, LineCounts> initial;
+        try (ParallelCounter counter = new ParallelCounter(2)) {
+            initial = counter.scan(tempDir, filter, file -> CountLines.all(file.toString()));
+        }
+
+        try (CountWatcher watcher = new CountWatcher(tempDir, filter, file -> CountLines.all(file.toString()),
+                initial)) {
+            assertEquals(new LineCounts(3, 3, 0, 0), watcher.getTotals());
+
+            Files.writeString(kept, "int a;\n// note\nint d;\n");
+            Files.delete(removed);
+            Path added = Files.createDirectories(tempDir.resolve("pkg")).resolve("Added.java");
+            Files.writeString(added, "\nint e;\n");
+            Files.writeString(tempDir.resolve("ignored.txt"), "text\n");
+
+            LineCounts expected = new LineCounts(5, 3, 1, 1);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (!expected.equals(watcher.getTotals()) && System.nanoTime() < deadline) {
+                watcher.poll(200, TimeUnit.MILLISECONDS);
+            }
+
+            assertEquals(expected, watcher.getTotals());
+            assertEquals(2, watcher.getFileCount());
+            assertEquals(new LineCounts(2, 1, 1, 0), watcher.getCounts(added.toString()));
+            assertNull(watcher.getCounts(removed.toString()));
+        }
+    }
+
+    @Test
+    void should_keepWatching_when_aFileCannotBeCounted() throws Exception {
+        Path good = tempDir.resolve("good.txt");
+        Path undecodable = tempDir.resolve("undecodable.txt");
+        Files.writeString(good, "a\n");
+        GlobFilter filter = new GlobFilter(List.of("*.txt"), List.of());
+        // A counter that decodes UTF-8, so it fails on the bytes of the second file.
+        ParallelCounter.FileCounter<LineCounts> decoding = file -> {
+            try (Stream<String> lines = Files.lines(file)) {
+                return LineCounts.ofPhysical((int) lines.count());
+            }
+        };
+        List<String> warnings = new ArrayList<>();
+
+        try (CountWatcher watcher = new CountWatcher(tempDir, filter, decoding,
+                new TreeMap<>(Map.of(good.toString(), LineCounts.ofPhysical(1))), warnings::add)) {
+            Files.write(undecodable, new byte[] { (byte) 0xFF, (byte) 0xFE, '\n' });
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (warnings.isEmpty() && System.nanoTime() < deadline) {
+                watcher.poll(200, TimeUnit.MILLISECONDS);
+            }
+
+            Files.writeString(good, "a\nb\n");
+            while (watcher.getTotals().physical() != 2 && System.nanoTime() < deadline) {
+                watcher.poll(200, TimeUnit.MILLISECONDS);
+            }
+
+            assertTrue(warnings.get(0).contains(undecodable.toString()), warnings.get(0));
+            assertTrue(watcher.isWatching());
+            assertEquals(LineCounts.ofPhysical(2), watcher.getCounts(good.toString()));
+            assertNull(watcher.getCounts(undecodable.toString()));
+        }
+    }
+
+    //--- Tests for CountReport ---
+
+    @Test
+    void should_aggregateTotals_perDirectoryAndExtension() throws IOException {
+        Path root = Paths.get("src");
+        SortedMap<String, LineCounts> files = new TreeMap<>();
+        files.put("src/a/One.java", new LineCounts(10, 6, 2, 2));
+        files.put("src/a/b/Two.java", new LineCounts(5, 3, 1, 1));
+        files.put("src/notes.md", new LineCounts(4, 4, 0, 0));
+
+        CountReport report = new CountReport(root, files, "all");
+        StringWriter csv = new StringWriter();
+        report.write(csv, "csv");
+
+        assertEquals(new LineCounts(19, 13, 3, 3), report.getTotals());
+        assertEquals(3, report.getFileCount());
+        assertTrue(csv.toString().startsWith("kind,path,files,physical,logical,blank,comment\n"));
+        assertTrue(csv.toString().contains("directory," + Paths.get("src", "a") + ",2,15,9,3,3\n"));
+        assertTrue(csv.toString().contains("extension,.java,2,15,9,3,3\n"));
+        assertTrue(csv.toString().endsWith("total,src,3,19,13,3,3\n"));
+    }
+
+    @Test
+    void should_writeOnlyTheRequestedMetric_as_json() throws IOException {
+        SortedMap<String, LineCounts> files = new TreeMap<>();
+        files.put("src/Main.java", LineCounts.ofLogical(7));
+
+        StringWriter json = new StringWriter();
+        new CountReport(Paths.get("src"), files, "loc").write(json, "json");
+
+        assertTrue(json.toString().contains("\"totals\":{\"files\":1,\"logical\":7}"));
+        assertTrue(json.toString().contains("{\"path\":\"src/Main.java\",\"logical\":7}"));
+        assertFalse(json.toString().contains("physical"));
+    }
 }
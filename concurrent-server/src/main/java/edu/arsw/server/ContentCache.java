@@ -0,0 +1,274 @@
+package edu.arsw.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An in-memory cache of the static files of a web root, with their responses ready
+ * to send.
+ * The content of each cached file is held in a direct ByteBuffer, which socket
+ * channels write without another copy, next to its headers already serialized: a
+ * cache hit needs no file system call, no MIME type probing and no header building,
+ * and only the Date header of the current second is added to it.
+ * <p>
+ * The cache holds at most a given number of bytes, evicting the least recently used
+ * files first; files larger than {@link #MAX_FILE_SIZE} are not cached, since
+ * FileChannel.transferTo already sends them without copying. A WatchService on the
+ * web root and its subdirectories removes a file from the cache as soon as it is
+ * created, modified or deleted; changes are seen as fast as the platform reports
+ * them, which is immediate on Linux.
+ */
+final class ContentCache implements Closeable {
+
+    static final long MAX_FILE_SIZE = 1024 * 1024;
+
+    private static final ByteBuffer STATUS_LINE = ByteBuffer
+            .allocateDirect(17).put("HTTP/1.1 200 OK\r\n".getBytes(StandardCharsets.US_ASCII)).flip()
+            .asReadOnlyBuffer();
+
+    private final Path webRoot;
+    private final long capacity;
+    private final long maxFileSize;
+    private final WatchService watchService;
+
+    // Guarded by this: the entries in access order, their total size and the number
+    // of invalidations, which tells a load whether its file changed while it was read.
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long invalidations;
+
+    /**
+     * Creates an empty cache and starts watching the web root for changes.
+     *
+     * @param webRoot  The root directory for serving files.
+     * @param capacity The maximum number of bytes held, content and headers.
+     * @throws IOException If the web root cannot be watched.
+     */
+    ContentCache(String webRoot, long capacity) throws IOException {
+        this.webRoot = Path.of(webRoot).normalize();
+        this.capacity = capacity;
+        this.maxFileSize = Math.min(MAX_FILE_SIZE, capacity);
+        this.watchService = FileSystems.getDefault().newWatchService();
+        try {
+            register(this.webRoot);
+        } catch (IOException e) {
+            watchService.close();
+            throw e;
+        }
+        Thread watcher = new Thread(this::watch, "content-cache-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * The cached response for one file.
+     */
+    static final class Entry {
+        private final ByteBuffer keepAliveFields;
+        private final ByteBuffer closeFields;
+        private final ByteBuffer content;
+
+        private Entry(ByteBuffer content, String contentType) {
+            this.content = content.asReadOnlyBuffer();
+            this.keepAliveFields = encode(HttpResponses.fields(content.remaining(), contentType, true));
+            this.closeFields = encode(HttpResponses.fields(content.remaining(), contentType, false));
+        }
+
+        private static ByteBuffer encode(String fields) {
+            byte[] bytes = fields.getBytes(StandardCharsets.UTF_8);
+            return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip().asReadOnlyBuffer();
+        }
+
+        /**
+         * Returns the whole response, ready for a gathering write: the status line,
+         * the Date header of the current second, the other headers and the content.
+         * The buffers are views of their own, so connections do not share positions.
+         *
+         * @param keepAlive Whether the connection stays open after the response.
+         * @return The buffers of the response, in order.
+         */
+        ByteBuffer[] response(boolean keepAlive) {
+            return new ByteBuffer[] {
+                STATUS_LINE.duplicate(),
+                ByteBuffer.wrap(HttpResponses.dateLine()),
+                (keepAlive ? keepAliveFields : closeFields).duplicate(),
+                content.duplicate() };
+        }
+
+        private long size() {
+            return content.capacity() + keepAliveFields.capacity() + closeFields.capacity();
+        }
+    }
+
+    /**
+     * Returns the cached response for a file of the web root, loading the file into
+     * the cache on a miss.
+     *
+     * @param file A normalized path inside the web root, as from {@link Route#resolve}.
+     * @return The response, or null if the file is missing, is not a regular file or
+     *         is too large to be cached.
+     * @throws IOException If the file exists but cannot be read.
+     */
+    Entry get(Path file) throws IOException {
+        long loadedAfter;
+        synchronized (this) {
+            Entry entry = entries.get(file);
+            if (entry != null) {
+                return entry;
+            }
+            loadedAfter = invalidations;
+        }
+
+        Entry entry = load(file);
+        if (entry == null) {
+            return null;
+        }
+        synchronized (this) {
+            // A file that changed while it was read is served once but not cached.
+            if (loadedAfter == invalidations && !entries.containsKey(file)) {
+                entries.put(file, entry);
+                bytes += entry.size();
+                evict();
+            }
+        }
+        return entry;
+    }
+
+    private Entry load(Path file) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+        if (!attributes.isRegularFile() || attributes.size() > maxFileSize) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length > maxFileSize) {
+                return null;
+            }
+            ByteBuffer content = ByteBuffer.allocateDirect((int) length);
+            while (content.hasRemaining() && channel.read(content) >= 0) {
+                // Keep reading until the buffer is full or the file ends.
+            }
+            return new Entry(content.flip(), HttpResponses.contentType(file));
+        }
+    }
+
+    /**
+     * Removes the least recently used entries until the cache fits its capacity.
+     */
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (bytes > capacity && iterator.hasNext()) {
+            bytes -= iterator.next().size();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Removes a file, or every file under a directory, from the cache.
+     *
+     * @param path A normalized path inside the web root.
+     */
+    synchronized void invalidate(Path path) {
+        invalidations++;
+        Iterator<Map.Entry<Path, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, Entry> entry = iterator.next();
+            if (entry.getKey().startsWith(path)) {
+                bytes -= entry.getValue().size();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of cached files.
+     *
+     * @return The number of entries.
+     */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Stops watching the web root. Cached responses stay valid for the connections
+     * that are still sending them.
+     *
+     * @throws IOException If the WatchService cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    /**
+     * Registers a directory and all of its subdirectories with the WatchService.
+     */
+    private void register(Path directory) throws IOException {
+        Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) throws IOException {
+                dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Invalidates the files reported by the WatchService until it is closed.
+     */
+    private void watch() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Path directory = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    // Events were lost, so any file may have changed.
+                    invalidate(webRoot);
+                    continue;
+                }
+                Path changed = directory.resolve((Path) event.context());
+                invalidate(changed);
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                        && Files.isDirectory(changed, LinkOption.NOFOLLOW_LINKS)) {
+                    try {
+                        register(changed);
+                    } catch (IOException | ClosedWatchServiceException e) {
+                        // The directory is gone again, or the cache is closing.
+                    }
+                }
+            }
+            key.reset();
+        }
+    }
+}
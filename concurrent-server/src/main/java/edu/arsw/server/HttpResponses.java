@@ -0,0 +1,116 @@
+package edu.arsw.server;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Builds the bytes of HTTP responses, so every server mode sends the same headers
+ * and error pages.
+ */
+final class HttpResponses {
+
+    static final String SERVER = "SimpleJavaWebServer/1.0";
+
+    /**
+     * The Date header of the current second, formatted once per second instead of
+     * once per response.
+     */
+    private record DateLine(long second, String text, byte[] bytes) {
+    }
+
+    private static volatile DateLine dateLine = new DateLine(Long.MIN_VALUE, null, null);
+
+    private HttpResponses() {
+        // Utility class with static methods only.
+    }
+
+    /**
+     * Builds the status line and headers of a response, ending with the blank line.
+     *
+     * @param statusCode    The HTTP status code.
+     * @param statusMessage The HTTP status message.
+     * @param contentLength The length of the content being sent in bytes.
+     * @param contentType   The MIME type of the content.
+     * @param keepAlive     Whether the connection stays open after the response.
+     * @return The header bytes, encoded as UTF-8.
+     */
+    static byte[] header(int statusCode, String statusMessage, long contentLength, String contentType,
+            boolean keepAlive) {
+        StringBuilder response = new StringBuilder(160);
+        response.append("HTTP/1.1 ").append(statusCode).append(" ").append(statusMessage).append("\r\n");
+        response.append(currentDateLine().text());
+        response.append(fields(contentLength, contentType, keepAlive));
+        return response.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Builds the headers that follow the Date header, ending with the blank line.
+     * They do not change between responses with the same content, so they can be
+     * built once and cached.
+     *
+     * @param contentLength The length of the content being sent in bytes.
+     * @param contentType   The MIME type of the content.
+     * @param keepAlive     Whether the connection stays open after the response.
+     * @return The header lines.
+     */
+    static String fields(long contentLength, String contentType, boolean keepAlive) {
+        return "Server: " + SERVER + "\r\n"
+                + "Content-Type: " + contentType + "\r\n"
+                + "Content-Length: " + contentLength + "\r\n"
+                + "Connection: " + (keepAlive ? "keep-alive" : "close") + "\r\n"
+                + "\r\n";
+    }
+
+    /**
+     * Returns the Date header line of the current second, including its line break.
+     * The array is shared and must not be modified.
+     *
+     * @return The header line, encoded as ASCII.
+     */
+    static byte[] dateLine() {
+        return currentDateLine().bytes();
+    }
+
+    private static DateLine currentDateLine() {
+        long second = Math.floorDiv(System.currentTimeMillis(), 1000);
+        DateLine current = dateLine;
+        if (current.second() != second) {
+            String text = "Date: " + DateTimeFormatter.RFC_1123_DATE_TIME
+                    .format(Instant.ofEpochSecond(second).atZone(ZoneOffset.UTC)) + "\r\n";
+            current = new DateLine(second, text, text.getBytes(StandardCharsets.US_ASCII));
+            dateLine = current;
+        }
+        return current;
+    }
+
+    /**
+     * Builds the HTML page sent with an error status.
+     *
+     * @param statusCode    The HTTP status code for the error.
+     * @param statusMessage The HTTP status message for the error.
+     * @return The page, encoded as UTF-8.
+     */
+    static byte[] errorBody(int statusCode, String statusMessage) {
+        String htmlContent = "<!DOCTYPE html><html><head><title>Error " + statusCode + "</title></head><body><h1>Error "
+                + statusCode + ": " + statusMessage
+                + "</h1><p>The requested resource could not be found or you do not have permission.</p></body></html>";
+        return htmlContent.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Guesses the MIME type of a file from its name.
+     *
+     * @param file The file to be sent.
+     * @return The MIME type, or application/octet-stream if it is unknown.
+     * @throws IOException If an I/O error occurs while probing the file.
+     */
+    static String contentType(Path file) throws IOException {
+        String contentType = Files.probeContentType(file);
+        return contentType == null ? "application/octet-stream" : contentType;
+    }
+}
@@ -0,0 +1,363 @@
+package edu.arsw.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A non-blocking web server built on a ServerSocketChannel and Selectors.
+ * One acceptor thread accepts connections and hands them in turn to a fixed number
+ * of event-loop threads. Each event loop owns a Selector and serves all of its
+ * connections without blocking: requests are read as their bytes arrive, and
+ * responses are written as the socket buffers free up, with file content sent by
+ * FileChannel.transferTo. A slow client therefore only holds a selection key and a
+ * small buffer instead of a thread, so a few threads can serve tens of thousands of
+ * concurrent connections.
+ * <p>
+ * Requests are answered exactly as by {@link RequestHandler}; individual requests
+ * are not logged, since printing is slower than serving at this scale. With a
+ * {@link ContentCache}, cached responses are written from their buffers with one
+ * gathering write, and a miss reads the file on the event loop before caching it.
+ */
+public class NioWebServer implements Closeable {
+
+    private static final int BACKLOG = 4096;
+    private static final int REQUEST_BUFFER_SIZE = 4096;
+
+    private final String webRoot;
+    private final ContentCache cache;
+    private final ServerSocketChannel serverChannel;
+    private final int port;
+    private final EventLoop[] eventLoops;
+    private final Thread[] threads;
+    private volatile boolean running = true;
+
+    /**
+     * Opens the server socket; no connection is accepted until {@link #start()}.
+     *
+     * @param port           The port to listen on, or 0 for any free port.
+     * @param webRoot        The root directory for serving files.
+     * @param eventLoopCount The number of event-loop threads, at least one.
+     * @throws IOException If the socket or a selector cannot be opened.
+     */
+    public NioWebServer(int port, String webRoot, int eventLoopCount) throws IOException {
+        this(port, webRoot, eventLoopCount, null);
+    }
+
+    /**
+     * Opens the server socket with a cache of the web root; no connection is accepted
+     * until {@link #start()}. The cache is not closed with the server.
+     *
+     * @param port           The port to listen on, or 0 for any free port.
+     * @param webRoot        The root directory for serving files.
+     * @param eventLoopCount The number of event-loop threads, at least one.
+     * @param cache          The cache of the web root, or null to read every file.
+     * @throws IOException If the socket or a selector cannot be opened.
+     */
+    NioWebServer(int port, String webRoot, int eventLoopCount, ContentCache cache) throws IOException {
+        if (eventLoopCount < 1) {
+            throw new IllegalArgumentException("The number of event loops must be positive: " + eventLoopCount);
+        }
+        this.webRoot = webRoot;
+        this.cache = cache;
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), BACKLOG);
+        this.port = ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+
+        this.eventLoops = new EventLoop[eventLoopCount];
+        this.threads = new Thread[eventLoopCount + 1];
+        for (int i = 0; i < eventLoopCount; i++) {
+            eventLoops[i] = new EventLoop(Selector.open());
+            threads[i] = new Thread(eventLoops[i], "nio-event-loop-" + i);
+        }
+        threads[eventLoopCount] = new Thread(this::acceptConnections, "nio-acceptor");
+    }
+
+    /**
+     * Starts the event loops and the acceptor.
+     */
+    public void start() {
+        for (Thread thread : threads) {
+            thread.start();
+        }
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return The local port.
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Stops accepting connections, closes every open connection and waits for the
+     * threads to finish.
+     *
+     * @throws IOException If the server socket cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverChannel.close();
+        for (EventLoop eventLoop : eventLoops) {
+            eventLoop.selector.wakeup();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Accepts connections and distributes them round-robin over the event loops.
+     */
+    private void acceptConnections() {
+        int next = 0;
+        while (running) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                eventLoops[next].add(channel);
+                next = (next + 1) % eventLoops.length;
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                System.err.println("Error accepting a connection: " + e.getMessage());
+                pause();
+            }
+        }
+    }
+
+    /**
+     * Waits a little after a failed accept, for example when the process is out of
+     * file descriptors, instead of retrying in a busy loop.
+     */
+    private static void pause() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * One thread with its own Selector serving the connections assigned to it.
+     */
+    private final class EventLoop implements Runnable {
+        private final Selector selector;
+        private final Queue<SocketChannel> newChannels = new ConcurrentLinkedQueue<>();
+
+        EventLoop(Selector selector) {
+            this.selector = selector;
+        }
+
+        /**
+         * Queues a new connection and wakes the selector up to register it.
+         */
+        void add(SocketChannel channel) {
+            newChannels.add(channel);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select(this::handle);
+                    registerNewChannels();
+                }
+            } catch (IOException e) {
+                System.err.println("Error in the event loop: " + e.getMessage());
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    ((Connection) key.attachment()).close();
+                }
+                SocketChannel channel;
+                while ((channel = newChannels.poll()) != null) {
+                    closeQuietly(channel);
+                }
+                closeQuietly(selector);
+            }
+        }
+
+        private void registerNewChannels() {
+            SocketChannel channel;
+            while ((channel = newChannels.poll()) != null) {
+                try {
+                    SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                    key.attach(new Connection(channel, key));
+                } catch (IOException e) {
+                    closeQuietly(channel);
+                }
+            }
+        }
+
+        private void handle(SelectionKey key) {
+            Connection connection = (Connection) key.attachment();
+            try {
+                if (key.isReadable()) {
+                    connection.read();
+                }
+                if (key.isValid() && key.isWritable()) {
+                    connection.write();
+                }
+            } catch (IOException e) {
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * The state of one connection: the bytes of the request read so far, then the
+     * response being written.
+     */
+    private final class Connection {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final ByteBuffer request = ByteBuffer.allocate(REQUEST_BUFFER_SIZE);
+
+        // The header and, for errors, the page; then the file, sent from position to end.
+        private ByteBuffer[] head;
+        private FileChannel file;
+        private long position;
+        private long end;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        void read() throws IOException {
+            if (channel.read(request) < 0) {
+                close();
+                return;
+            }
+            if (head != null || indexOfHeadersEnd() < 0) {
+                if (head == null && !request.hasRemaining()) {
+                    respondWithError(431, "Request Header Fields Too Large");
+                }
+                return;
+            }
+
+            String requestLine = requestLine();
+            if (requestLine.isEmpty()) {
+                close();
+                return;
+            }
+            Route route = Route.resolve(webRoot, requestLine);
+            ContentCache.Entry cached = cache == null || route.file() == null ? null : cache.get(route.file());
+            if (cached != null) {
+                head = cached.response(false);
+                startWriting();
+                return;
+            }
+
+            route = route.checkFile();
+            if (route.file() == null) {
+                respondWithError(route.statusCode(), route.statusMessage());
+                return;
+            }
+
+            file = FileChannel.open(route.file(), StandardOpenOption.READ);
+            position = 0;
+            end = file.size();
+            head = new ByteBuffer[] { ByteBuffer.wrap(HttpResponses.header(200, "OK", end,
+                    HttpResponses.contentType(route.file()), false)) };
+            startWriting();
+        }
+
+        /**
+         * Writes as much of the response as the socket accepts, and closes the
+         * connection once it is complete.
+         */
+        void write() throws IOException {
+            channel.write(head);
+            for (ByteBuffer buffer : head) {
+                if (buffer.hasRemaining()) {
+                    return;
+                }
+            }
+            while (file != null && position < end) {
+                long sent = file.transferTo(position, end - position, channel);
+                if (sent == 0) {
+                    return;
+                }
+                position += sent;
+            }
+            close();
+        }
+
+        void close() {
+            key.cancel();
+            closeQuietly(channel);
+            if (file != null) {
+                closeQuietly(file);
+                file = null;
+            }
+        }
+
+        private void respondWithError(int statusCode, String statusMessage) throws IOException {
+            byte[] body = HttpResponses.errorBody(statusCode, statusMessage);
+            head = new ByteBuffer[] {
+                ByteBuffer.wrap(HttpResponses.header(statusCode, statusMessage, body.length, "text/html", false)),
+                ByteBuffer.wrap(body) };
+            startWriting();
+        }
+
+        private void startWriting() throws IOException {
+            key.interestOps(SelectionKey.OP_WRITE);
+            write();
+        }
+
+        /**
+         * Returns the index just after the blank line that ends the headers, or -1
+         * if it has not arrived yet.
+         */
+        private int indexOfHeadersEnd() {
+            byte[] bytes = request.array();
+            for (int i = 1; i < request.position(); i++) {
+                if (bytes[i] == '\n' && (bytes[i - 1] == '\n'
+                        || (i >= 2 && bytes[i - 1] == '\r' && bytes[i - 2] == '\n'))) {
+                    return i + 1;
+                }
+            }
+            return -1;
+        }
+
+        private String requestLine() {
+            byte[] bytes = request.array();
+            int length = 0;
+            while (length < request.position() && bytes[length] != '\r' && bytes[length] != '\n') {
+                length++;
+            }
+            return new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Nothing more can be done with a connection that fails to close.
+        }
+    }
+}
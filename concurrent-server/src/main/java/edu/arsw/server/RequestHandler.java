@@ -2,87 +2,154 @@ package edu.arsw.server;
 
 import java.io.*;
 import java.net.Socket;
-import java.nio.file.Files;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.Date;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 /**
  * Handles individual client HTTP requests within a separate thread.
  * This class implements Runnable, allowing it to be executed by an
  * ExecutorService.
- * It parses the incoming HTTP request, retrieves the requested file from the
- * web root,
- * and sends an HTTP response (including file content or an error message) back
- * to the client.
+ * It parses the incoming HTTP requests, retrieves the requested files from the
+ * web root, and sends HTTP responses (including file content or an error message)
+ * back to the client.
+ * <p>
+ * Connections are persistent as in HTTP/1.1: after each response the handler reads
+ * the next request on the same socket, unless the client asked for
+ * {@code Connection: close}, spoke HTTP/1.0 without {@code Connection: keep-alive},
+ * or stayed idle for longer than the keep-alive timeout. Pipelined requests, sent
+ * before the previous responses arrive, are answered one after the other in the
+ * order they were sent.
+ * <p>
+ * A connection kept alive holds its thread while it waits for the next request. On
+ * a fixed pool that would keep queued connections waiting, so when the executor
+ * reports that other connections are waiting for a thread, the handler answers with
+ * {@code Connection: close} and gives up an idle connection within
+ * {@value #IDLE_POLL_MILLIS} ms.
  */
 public class RequestHandler implements Runnable {
 
+    private static final int KEEP_ALIVE_TIMEOUT_MILLIS = 5_000;
+    private static final int IDLE_POLL_MILLIS = 100;
+    private static final int MAX_HEADERS = 100;
+    private static final int WAIT_CHUNK_SIZE = 64 * 1024;
+
     private Socket clientSocket;
     private String webRoot;
+    private ContentCache cache;
+    private BooleanSupplier saturated;
 
     /**
-     * Constructs a new RequestHandler.
+     * Constructs a new RequestHandler that reads every file from the web root.
      * 
      * @param clientSocket The Socket representing the client connection.
      * @param webRoot      The root directory for serving files.
      */
     public RequestHandler(Socket clientSocket, String webRoot) {
+        this(clientSocket, webRoot, null);
+    }
+
+    /**
+     * Constructs a new RequestHandler that serves the files of the web root from a
+     * cache when it can.
+     * 
+     * @param clientSocket The Socket representing the client connection.
+     * @param webRoot      The root directory for serving files.
+     * @param cache        The cache of the web root, or null to read every file.
+     */
+    RequestHandler(Socket clientSocket, String webRoot, ContentCache cache) {
+        this(clientSocket, webRoot, cache, () -> false);
+    }
+
+    /**
+     * Constructs a new RequestHandler for an executor with a limited number of
+     * threads.
+     * 
+     * @param clientSocket The Socket representing the client connection.
+     * @param webRoot      The root directory for serving files.
+     * @param cache        The cache of the web root, or null to read every file.
+     * @param saturated    Tells whether other connections are waiting for a thread,
+     *                     in which case this one is not kept alive.
+     */
+    RequestHandler(Socket clientSocket, String webRoot, ContentCache cache, BooleanSupplier saturated) {
         this.clientSocket = clientSocket;
         this.webRoot = webRoot;
+        this.cache = cache;
+        this.saturated = saturated;
     }
 
     /**
      * The main logic executed by the thread from the thread pool.
-     * It reads the HTTP request, processes it, and sends a response.
+     * It reads the HTTP requests of the connection one by one, processes them, and
+     * sends a response to each, until the connection is no longer kept alive.
      */
     @Override
     public void run() {
-        try (BufferedReader in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
+        // ISO-8859-1 maps each byte to one char, so a request body can be skipped by length.
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(clientSocket.getInputStream(), StandardCharsets.ISO_8859_1));
                 OutputStream out = clientSocket.getOutputStream()) {
 
-            String requestLine = in.readLine();
-            if (requestLine == null || requestLine.isEmpty()) {
-                return;
-            }
-
-            System.out.println("Request received: " + requestLine);
-
-            String[] parts = requestLine.split(" ");
-            if (parts.length < 2) {
-                sendErrorResponse(out, 400, "Bad Request");
-                return;
-            }
-            String uri = parts[1];
-
-            if ("/".equals(uri)) {
-                uri = "/index.html";
-            }
-
-            Path filePath = Paths.get(webRoot, uri).normalize();
+            clientSocket.setSoTimeout(KEEP_ALIVE_TIMEOUT_MILLIS);
+            // Headers and content are separate writes; Nagle's algorithm would hold the
+            // end of a small response until the client acknowledges its start.
+            clientSocket.setTcpNoDelay(true);
+            boolean keepAlive = true;
+            for (boolean first = true; keepAlive; first = false) {
+                if (!first && !awaitNextRequest(in)) {
+                    return;
+                }
+                String requestLine = in.readLine();
+                if (requestLine == null || requestLine.isEmpty()) {
+                    return;
+                }
 
-            if (!filePath.startsWith(Paths.get(webRoot))) {
-                sendErrorResponse(out, 403, "Forbidden");
-                return;
-            }
+                System.out.println("Request received: " + requestLine);
 
-            File file = filePath.toFile();
+                Map<String, String> headers = readHeaders(in);
+                if (headers == null) {
+                    sendErrorResponse(out, 400, "Bad Request", false);
+                    return;
+                }
+                keepAlive = isKeepAlive(requestLine, headers) && skipBody(in, headers)
+                        && !saturated.getAsBoolean();
 
-            // Check if the file exists and is not a directory.
-            if (file.exists() && !file.isDirectory()) {
-                String contentType = Files.probeContentType(filePath);
-                if (contentType == null) {
-                    contentType = "application/octet-stream";
+                Route route = Route.resolve(webRoot, requestLine);
+                ContentCache.Entry cached = cache == null || route.file() == null ? null : cache.get(route.file());
+                if (cached != null) {
+                    sendCached(out, cached, keepAlive);
+                    continue;
                 }
 
-                sendHeader(out, 200, "OK", file.length(), contentType);
+                route = route.checkFile();
+                if (route.file() == null) {
+                    // After a malformed request line the next request cannot be found.
+                    keepAlive &= route.statusCode() != 400;
+                    sendErrorResponse(out, route.statusCode(), route.statusMessage(), keepAlive);
+                    continue;
+                }
 
-                Files.copy(filePath, out);
-                out.flush();
-            } else {
-                sendErrorResponse(out, 404, "Not Found");
+                Path filePath = route.file();
+                try (FileChannel file = FileChannel.open(filePath, StandardOpenOption.READ)) {
+                    long size = file.size();
+                    sendHeader(out, 200, "OK", size, HttpResponses.contentType(filePath), keepAlive);
+                    sendFile(out, file, size);
+                }
             }
 
+        } catch (SocketTimeoutException e) {
+            // The connection stayed idle for longer than the keep-alive timeout.
         } catch (IOException e) {
             System.err.println("Error handling the request: " + e.getMessage());
         } finally {
@@ -97,6 +164,207 @@ public class RequestHandler implements Runnable {
         }
     }
 
+    /**
+     * Waits until the next request of a kept-alive connection starts to arrive. The
+     * wait is split into short read timeouts, so the connection can be given up as
+     * soon as other connections need the thread.
+     *
+     * @param in The reader positioned after the previous request.
+     * @return True if a request follows, or false if the client closed the
+     *         connection, it stayed idle for the keep-alive timeout or the executor
+     *         is saturated.
+     * @throws IOException If an I/O error occurs while reading.
+     */
+    private boolean awaitNextRequest(BufferedReader in) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(KEEP_ALIVE_TIMEOUT_MILLIS);
+        clientSocket.setSoTimeout(IDLE_POLL_MILLIS);
+        try {
+            while (true) {
+                try {
+                    // A timeout before the first character leaves the reader unchanged. The
+                    // limit of 2 also covers the '\n' of a "\r\n" that readLine left unread.
+                    in.mark(2);
+                    if (in.read() < 0) {
+                        return false;
+                    }
+                    in.reset();
+                    return true;
+                } catch (SocketTimeoutException e) {
+                    if (saturated.getAsBoolean() || System.nanoTime() - deadline >= 0) {
+                        return false;
+                    }
+                }
+            }
+        } finally {
+            clientSocket.setSoTimeout(KEEP_ALIVE_TIMEOUT_MILLIS);
+        }
+    }
+
+    /**
+     * Reads the header fields that follow the request line, up to the blank line
+     * that ends them or the end of the stream.
+     *
+     * @param in The reader positioned after the request line.
+     * @return The headers by lower-case name, with the values of repeated names
+     *         joined by commas, or null if a line is not a header field.
+     * @throws IOException If an I/O error occurs while reading.
+     */
+    private static Map<String, String> readHeaders(BufferedReader in) throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        String line;
+        int count = 0;
+        while ((line = in.readLine()) != null && !line.isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon <= 0 || ++count > MAX_HEADERS) {
+                return null;
+            }
+            String name = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).trim();
+            headers.merge(name, value, (previous, next) -> previous + ", " + next);
+        }
+        return headers;
+    }
+
+    /**
+     * Decides whether the connection stays open after the response. HTTP/1.1
+     * connections persist unless the client sends {@code Connection: close}, while
+     * older versions must ask for {@code Connection: keep-alive}.
+     *
+     * @param requestLine The first line of the request.
+     * @param headers     The headers of the request.
+     * @return True if another request may follow on the connection.
+     */
+    private static boolean isKeepAlive(String requestLine, Map<String, String> headers) {
+        boolean http11 = requestLine.endsWith(" HTTP/1.1");
+        String connection = headers.get("connection");
+        if (connection == null) {
+            return http11;
+        }
+        for (String option : connection.split(",")) {
+            String token = option.trim();
+            if (token.equalsIgnoreCase("close")) {
+                return false;
+            }
+            if (token.equalsIgnoreCase("keep-alive")) {
+                return true;
+            }
+        }
+        return http11;
+    }
+
+    /**
+     * Skips the body of the request, which is never used, so the next request on the
+     * connection starts where expected.
+     *
+     * @param in      The reader positioned after the headers.
+     * @param headers The headers of the request.
+     * @return False if the end of the body cannot be found and the connection must
+     *         be closed after the response.
+     * @throws IOException If an I/O error occurs while reading.
+     */
+    private static boolean skipBody(BufferedReader in, Map<String, String> headers) throws IOException {
+        if (headers.containsKey("transfer-encoding")) {
+            return false;
+        }
+        String contentLength = headers.get("content-length");
+        if (contentLength == null) {
+            return true;
+        }
+        long remaining;
+        try {
+            remaining = Long.parseLong(contentLength);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (remaining < 0) {
+            return false;
+        }
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped == 0) {
+                return false;
+            }
+            remaining -= skipped;
+        }
+        return true;
+    }
+
+    /**
+     * Sends a cached response. Socket channels write its buffers with a gathering
+     * write, the content straight from its direct buffer; other sockets get them
+     * through their output stream.
+     *
+     * @param out       The OutputStream connected to the client socket.
+     * @param cached    The cached response.
+     * @param keepAlive Whether the connection stays open after the response.
+     * @throws IOException If an I/O error occurs while writing.
+     */
+    private void sendCached(OutputStream out, ContentCache.Entry cached, boolean keepAlive) throws IOException {
+        ByteBuffer[] response = cached.response(keepAlive);
+        SocketChannel channel = clientSocket.getChannel();
+        if (channel == null) {
+            WritableByteChannel stream = Channels.newChannel(out);
+            for (ByteBuffer buffer : response) {
+                while (buffer.hasRemaining()) {
+                    stream.write(buffer);
+                }
+            }
+            out.flush();
+            return;
+        }
+        long remaining = 0;
+        for (ByteBuffer buffer : response) {
+            remaining += buffer.remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(response);
+        }
+    }
+
+    /**
+     * Sends the content of a file after its headers. When the socket was accepted by
+     * a ServerSocketChannel it has a channel, and FileChannel.transferTo lets the
+     * kernel copy the file from the page cache straight to the socket (sendfile on
+     * Linux), without reading it into a buffer of the JVM first. Other sockets get
+     * the file through their output stream.
+     *
+     * @param out  The OutputStream connected to the client socket.
+     * @param file The open file to send.
+     * @param size The length announced in the Content-Length header.
+     * @throws IOException If an I/O error occurs, or the file became shorter than
+     *                     announced.
+     */
+    private void sendFile(OutputStream out, FileChannel file, long size) throws IOException {
+        SocketChannel channel = clientSocket.getChannel();
+        if (channel == null) {
+            Channels.newInputStream(file).transferTo(out);
+            out.flush();
+            return;
+        }
+        ByteBuffer chunk = null;
+        long position = 0;
+        while (position < size) {
+            long sent = file.transferTo(position, size - position, channel);
+            if (sent == 0) {
+                // With a read timeout, or on a virtual thread, the socket is non-blocking
+                // underneath and transferTo returns when its buffer is full; a write on the
+                // blocking channel waits for room, then the transfer goes on.
+                if (chunk == null) {
+                    chunk = ByteBuffer.allocate(WAIT_CHUNK_SIZE);
+                }
+                chunk.clear().limit((int) Math.min(WAIT_CHUNK_SIZE, size - position));
+                if (file.read(chunk, position) <= 0) {
+                    throw new EOFException("The file is shorter than its Content-Length");
+                }
+                chunk.flip();
+                while (chunk.hasRemaining()) {
+                    sent += channel.write(chunk);
+                }
+            }
+            position += sent;
+        }
+    }
+
     /**
      * Sends HTTP response headers to the client.
      * 
@@ -105,19 +373,13 @@ public class RequestHandler implements Runnable {
      * @param statusMessage The HTTP status message.
      * @param contentLength The length of the content being sent in bytes.
      * @param contentType   The MIME type of the content.
+     * @param keepAlive     Whether the connection stays open after the response.
      * @throws IOException If an I/O error occurs while writing to the output
      *                     stream.
      */
     private void sendHeader(OutputStream out, int statusCode, String statusMessage, long contentLength,
-            String contentType) throws IOException {
-        StringBuilder response = new StringBuilder();
-        response.append("HTTP/1.1 ").append(statusCode).append(" ").append(statusMessage).append("\r\n");
-        response.append("Date: ").append(new Date()).append("\r\n");
-        response.append("Server: SimpleJavaWebServer/1.0\r\n");
-        response.append("Content-Type: ").append(contentType).append("\r\n");
-        response.append("Content-Length: ").append(contentLength).append("\r\n");
-        response.append("\r\n");
-        out.write(response.toString().getBytes("UTF-8"));
+            String contentType, boolean keepAlive) throws IOException {
+        out.write(HttpResponses.header(statusCode, statusMessage, contentLength, contentType, keepAlive));
     }
 
     /**
@@ -126,15 +388,15 @@ public class RequestHandler implements Runnable {
      * @param out           The OutputStream connected to the client socket.
      * @param statusCode    The HTTP status code for the error.
      * @param statusMessage The HTTP status message for the error.
+     * @param keepAlive     Whether the connection stays open after the response.
      * @throws IOException If an I/O error occurs while writing to the output
      *                     stream.
      */
-    private void sendErrorResponse(OutputStream out, int statusCode, String statusMessage) throws IOException {
-        String htmlContent = "<!DOCTYPE html><html><head><title>Error " + statusCode + "</title></head><body><h1>Error "
-                + statusCode + ": " + statusMessage
-                + "</h1><p>The requested resource could not be found or you do not have permission.</p></body></html>";
-        sendHeader(out, statusCode, statusMessage, htmlContent.getBytes("UTF-8").length, "text/html");
-        out.write(htmlContent.getBytes("UTF-8"));
+    private void sendErrorResponse(OutputStream out, int statusCode, String statusMessage, boolean keepAlive)
+            throws IOException {
+        byte[] htmlContent = HttpResponses.errorBody(statusCode, statusMessage);
+        sendHeader(out, statusCode, statusMessage, htmlContent.length, "text/html", keepAlive);
+        out.write(htmlContent);
         out.flush();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,81 @@
+package edu.arsw.server;
+
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+
+/**
+ * The outcome of routing an HTTP request line to a file of the web root.
+ * It is shared by every server mode, so they all answer the same request with the
+ * same status.
+ *
+ * @param statusCode    The HTTP status code of the response.
+ * @param statusMessage The HTTP status message of the response.
+ * @param file          The file to send when the status is 200, or null otherwise.
+ */
+record Route(int statusCode, String statusMessage, Path file) {
+
+    /**
+     * Resolves a request line such as {@code GET /styles.css HTTP/1.1}.
+     * The root path maps to index.html, the query string is ignored, paths that
+     * leave the web root are forbidden and missing files or directories are not
+     * found.
+     *
+     * @param webRoot     The root directory for serving files.
+     * @param requestLine The first line of the request.
+     * @return The status and, on success, the file to send.
+     */
+    static Route of(String webRoot, String requestLine) {
+        return resolve(webRoot, requestLine).checkFile();
+    }
+
+    /**
+     * Resolves a request line to a path of the web root like {@link #of}, but without
+     * touching the file system: a status of 200 only means that the path is valid,
+     * and the file may not exist.
+     *
+     * @param webRoot     The root directory for serving files.
+     * @param requestLine The first line of the request.
+     * @return The status and, for a valid path, the normalized file path.
+     */
+    static Route resolve(String webRoot, String requestLine) {
+        String[] parts = requestLine.split(" ");
+        if (parts.length < 2) {
+            return new Route(400, "Bad Request", null);
+        }
+        String uri = parts[1];
+        int query = uri.indexOf('?');
+        if (query >= 0) {
+            uri = uri.substring(0, query);
+        }
+
+        if ("/".equals(uri)) {
+            uri = "/index.html";
+        }
+
+        Path filePath;
+        try {
+            filePath = Path.of(webRoot, uri).normalize();
+        } catch (InvalidPathException e) {
+            return new Route(400, "Bad Request", null);
+        }
+
+        if (!filePath.startsWith(Path.of(webRoot))) {
+            return new Route(403, "Forbidden", null);
+        }
+        return new Route(200, "OK", filePath);
+    }
+
+    /**
+     * Completes a route from {@link #resolve} by checking that its file exists.
+     *
+     * @return This route, or a 404 route if the file is missing or a directory.
+     */
+    Route checkFile() {
+        // Check if the file exists and is not a directory.
+        if (file == null || (Files.exists(file) && !Files.isDirectory(file))) {
+            return this;
+        }
+        return new Route(404, "Not Found", null);
+    }
+}
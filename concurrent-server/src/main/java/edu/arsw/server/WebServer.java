@@ -1,46 +1,145 @@
 package edu.arsw.server;
 
 import java.io.IOException;
-import java.net.ServerSocket;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 /**
  * A simple concurrent web server that listens for incoming client connections
  * and handles each request in a separate thread from a fixed thread pool.
  * This server serves files from a specified web root directory.
+ * <p>
+ * The first argument selects the mode: {@code pool} (the default) for the fixed
+ * thread pool, {@code virtual} for one virtual thread per connection, or
+ * {@code nio} for the non-blocking {@link NioWebServer} with one event loop per
+ * available processor. In every mode the files of the web root are served from a
+ * {@link ContentCache}.
  */
 public class WebServer {
 
     private static final int PORT = 8080;
     private static final int THREAD_POOL_SIZE = 10;
+    // Bursts of connections wait in the accept queue instead of being refused.
+    private static final int BACKLOG = 4096;
     private static final String WEB_ROOT = "resources";
+    private static final long CACHE_CAPACITY = 64L * 1024 * 1024;
 
     /**
      * The main entry point for the web server application.
-     * Initializes the server socket, sets up the thread pool, and starts
-     * listening for client connections.
+     * Starts the server in the mode given by the first argument.
+     *
+     * @param args The mode, {@code pool}, {@code virtual} or {@code nio}.
      */
     public static void main(String[] args) {
-        // Create a fixed-size thread pool to manage concurrent client requests
-        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_POOL_SIZE);
+        String mode = args.length > 0 ? args[0] : "pool";
+        switch (mode) {
+            case "pool" -> {
+                ThreadPoolExecutor pool = new ThreadPoolExecutor(THREAD_POOL_SIZE, THREAD_POOL_SIZE, 0L,
+                        TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+                runBlocking(pool, () -> !pool.getQueue().isEmpty(), openCache());
+            }
+            case "virtual" -> runBlocking(Executors.newVirtualThreadPerTaskExecutor(), () -> false, openCache());
+            case "nio" -> runEventLoops(openCache());
+            default -> {
+                System.err.println("Unknown mode: " + mode);
+                System.err.println("Usage: WebServer [pool | virtual | nio]");
+                System.exit(1);
+            }
+        }
+    }
 
+    /**
+     * Initializes the server socket and starts listening for client connections,
+     * running a RequestHandler for each one on the given executor: a fixed thread
+     * pool, or a virtual thread per connection. Virtual threads are cheap enough to
+     * create one per connection, and a virtual thread blocked on a slow client
+     * releases its carrier thread, so bursts are not queued behind busy workers.
+     * Connections are accepted by a blocking ServerSocketChannel, so each socket has
+     * a channel that files can be transferred to without copying.
+     *
+     * @param executorService The executor that runs the request handlers.
+     * @param saturated       Tells whether connections are waiting for a thread of
+     *                        the executor, so idle ones should not be kept alive.
+     * @param cache           The cache of the web root, or null.
+     */
+    private static void runBlocking(ExecutorService executorService, BooleanSupplier saturated,
+            ContentCache cache) {
         // Try-with-resources ensures the ServerSocket is closed automatically.
-        try (ServerSocket serverSocket = new ServerSocket(PORT)) {
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            serverChannel.bind(new InetSocketAddress(PORT), BACKLOG);
             System.out.println("Web server started on port " + PORT);
             System.out.println("Serving files from: " + WEB_ROOT);
             while (true) {
-                Socket clientSocket = serverSocket.accept();
+                Socket clientSocket = serverChannel.accept().socket();
                 System.out.println("New incoming connection from: " + clientSocket.getInetAddress());
-                executorService.submit(new RequestHandler(clientSocket, WEB_ROOT));
+                executorService.submit(new RequestHandler(clientSocket, WEB_ROOT, cache, saturated));
             }
         } catch (IOException e) {
             System.err.println("Error starting or running the server: " + e.getMessage());
             executorService.shutdown();
         } finally {
             executorService.shutdown();
+            closeCache(cache);
             System.out.println("Web server stopped.");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates the cache of the web root.
+     *
+     * @return The cache, or null if the web root cannot be watched, in which case
+     *         every request reads its file.
+     */
+    private static ContentCache openCache() {
+        try {
+            return new ContentCache(WEB_ROOT, CACHE_CAPACITY);
+        } catch (IOException e) {
+            System.err.println("Serving without a cache, the web root cannot be watched: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void closeCache(ContentCache cache) {
+        if (cache == null) {
+            return;
+        }
+        try {
+            cache.close();
+        } catch (IOException e) {
+            System.err.println("Error closing the cache: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts the non-blocking server and keeps it running until the JVM exits.
+     *
+     * @param cache The cache of the web root, or null.
+     */
+    private static void runEventLoops(ContentCache cache) {
+        int eventLoops = Runtime.getRuntime().availableProcessors();
+        try {
+            NioWebServer server = new NioWebServer(PORT, WEB_ROOT, eventLoops, cache);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.close();
+                } catch (IOException e) {
+                    System.err.println("Error stopping the server: " + e.getMessage());
+                }
+                closeCache(cache);
+                System.out.println("Web server stopped.");
+            }));
+            server.start();
+            System.out.println("Web server started on port " + PORT + " with " + eventLoops + " event loops");
+            System.out.println("Serving files from: " + WEB_ROOT);
+        } catch (IOException e) {
+            System.err.println("Error starting or running the server: " + e.getMessage());
+        }
+    }
+}
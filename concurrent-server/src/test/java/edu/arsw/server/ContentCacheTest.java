@@ -0,0 +1,122 @@
+package edu.arsw.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the ContentCache class, using a temporary web root.
+ */
+class ContentCacheTest {
+
+    @TempDir
+    Path tempDir;
+    private ContentCache cache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.writeString(tempDir.resolve("index.html"), "<html><body>Hello Test!</body></html>");
+        Files.writeString(tempDir.resolve("styles.css"), "body { color: red; }");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    private static String toString(ByteBuffer[] response) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (ByteBuffer buffer : response) {
+            byte[] chunk = new byte[buffer.remaining()];
+            buffer.get(chunk);
+            bytes.writeBytes(chunk);
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Should keep a file with its serialized headers after the first request")
+    void shouldCacheResponse() throws IOException {
+        cache = new ContentCache(tempDir.toString(), 1024 * 1024);
+        Path css = tempDir.resolve("styles.css");
+
+        ContentCache.Entry entry = cache.get(css);
+        String response = toString(entry.response(true));
+
+        assertSame(entry, cache.get(css));
+        assertEquals(1, cache.size());
+        assertTrue(response.startsWith("HTTP/1.1 200 OK\r\nDate: "));
+        assertTrue(response.contains("Content-Type: text/css\r\n"));
+        assertTrue(response.contains("Content-Length: 20\r\n"));
+        assertTrue(response.contains("Connection: keep-alive\r\n"));
+        assertTrue(response.endsWith("\r\n\r\nbody { color: red; }"));
+        assertTrue(toString(entry.response(false)).contains("Connection: close\r\n"));
+        // Every call returns fresh views of the same content.
+        assertEquals(response.length(), toString(entry.response(true)).length());
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used files beyond its capacity")
+    void shouldEvictLeastRecentlyUsed() throws IOException {
+        for (String name : new String[] { "a.txt", "b.txt", "c.txt" }) {
+            Files.write(tempDir.resolve(name), new byte[300]);
+        }
+        cache = new ContentCache(tempDir.toString(), 1200);
+        Path a = tempDir.resolve("a.txt");
+        Path b = tempDir.resolve("b.txt");
+
+        ContentCache.Entry first = cache.get(a);
+        ContentCache.Entry second = cache.get(b);
+        cache.get(a);
+        cache.get(tempDir.resolve("c.txt"));
+
+        assertEquals(2, cache.size());
+        assertSame(first, cache.get(a));
+        assertNotSame(second, cache.get(b));
+    }
+
+    @Test
+    @DisplayName("Should not cache missing files, directories or files larger than its capacity")
+    void shouldSkipUncacheableFiles() throws IOException {
+        Files.createDirectory(tempDir.resolve("docs"));
+        Files.write(tempDir.resolve("large.bin"), new byte[4096]);
+        cache = new ContentCache(tempDir.toString(), 2048);
+
+        assertNull(cache.get(tempDir.resolve("nonexistent.html")));
+        assertNull(cache.get(tempDir.resolve("docs")));
+        assertNull(cache.get(tempDir.resolve("large.bin")));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should serve the new content after a file changes on disk")
+    void shouldInvalidateChangedFiles() throws Exception {
+        Files.createDirectory(tempDir.resolve("css"));
+        Path nested = tempDir.resolve("css").resolve("site.css");
+        Files.writeString(nested, "p { margin: 0; }");
+        cache = new ContentCache(tempDir.toString(), 1024 * 1024);
+        Path index = tempDir.resolve("index.html");
+        cache.get(index);
+        cache.get(nested);
+
+        Files.writeString(index, "<html><body>Changed!</body></html>");
+        Files.writeString(nested, "p { margin: 1em; }");
+
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!(toString(cache.get(index).response(true)).endsWith("Changed!</body></html>")
+                && toString(cache.get(nested).response(true)).endsWith("p { margin: 1em; }"))) {
+            assertTrue(System.nanoTime() < deadline, "The cache was not invalidated");
+            Thread.sleep(20);
+        }
+    }
+}
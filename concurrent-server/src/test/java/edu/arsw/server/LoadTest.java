@@ -0,0 +1,324 @@
+package edu.arsw.server;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A load test that compares the throughput and latency of the server modes under
+ * bursts of static file requests.
+ * For each mode given as an argument (by default {@code pool} and {@code virtual})
+ * it starts the WebServer in a separate JVM, so the client and the server sockets do
+ * not share the file descriptor limit, and then releases 1,000 and then 10,000
+ * clients at the same instant. Each client sends a few requests, and the test
+ * reports the requests per second and the median and 99th percentile latency of
+ * each burst.
+ * <p>
+ * Every burst runs twice: once with a new connection per request
+ * ({@code Connection: close}), and once with each client reusing one kept-alive
+ * connection while {@value #IDLE_CONNECTIONS} other connections, like idle browser
+ * tabs, stay open without sending anything.
+ */
+public class LoadTest {
+
+    private static final String HOST = "localhost";
+    private static final int PORT = 8080;
+    private static final int[] CONCURRENT_CLIENTS = { 1_000, 10_000 };
+    private static final int REQUESTS_PER_CLIENT = 3;
+    private static final int WARM_UP_CLIENTS = 200;
+    private static final int IDLE_CONNECTIONS = 20;
+    private static final int TIMEOUT_MILLIS = 60_000;
+    private static final String[] RESOURCES = { "/", "/styles.css", "/image.jpg", "/index.html" };
+
+    /**
+     * The main method to run the load test.
+     *
+     * @param args The server modes to compare, {@code pool}, {@code virtual} or
+     *             {@code nio}.
+     * @throws Exception If a server cannot be started or the test is interrupted.
+     */
+    public static void main(String[] args) throws Exception {
+        String[] modes = args.length > 0 ? args : new String[] { "pool", "virtual" };
+        if (isListening()) {
+            System.err.println("Port " + PORT + " is already in use; stop the running server first.");
+            System.exit(1);
+        }
+
+        System.out.println("Load test against " + HOST + ":" + PORT + " with " + REQUESTS_PER_CLIENT
+                + " requests per client on " + Runtime.getRuntime().availableProcessors() + " processors");
+        System.out.printf("%n%-8s %-11s %8s %9s %7s %10s %12s %9s %9s%n", "Mode", "Connections", "Clients",
+                "Requests", "Failed", "Time (ms)", "Requests/s", "p50 (ms)", "p99 (ms)");
+
+        for (String mode : modes) {
+            Process server = startServer(mode);
+            try {
+                run(WARM_UP_CLIENTS, false);
+                for (int clients : CONCURRENT_CLIENTS) {
+                    print(mode, "close", clients, run(clients, false));
+                    List<Client> idle = openIdleConnections();
+                    try {
+                        print(mode, "reuse", clients, run(clients, true));
+                    } finally {
+                        for (Client client : idle) {
+                            client.close();
+                        }
+                    }
+                }
+            } finally {
+                stopServer(server);
+            }
+        }
+    }
+
+    /**
+     * The outcome of one burst.
+     *
+     * @param latencies The latency of each successful request in nanoseconds, sorted.
+     * @param failed    The number of failed requests.
+     * @param elapsed   The time from the release of the clients until the last
+     *                  response, in nanoseconds.
+     */
+    private record Result(long[] latencies, int failed, long elapsed) {
+    }
+
+    /**
+     * Releases the given number of clients at once, each on a virtual thread, and
+     * waits until all of them are done.
+     *
+     * @param keepAlive Whether each client reuses its connection for all of its
+     *                  requests, as long as the server keeps it open.
+     */
+    private static Result run(int clients, boolean keepAlive) throws InterruptedException {
+        long[] latencies = new long[clients * REQUESTS_PER_CLIENT];
+        CountDownLatch start = new CountDownLatch(1);
+        long begin;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                final int client = i;
+                executor.submit(() -> {
+                    start.await();
+                    try (Client connection = new Client(keepAlive)) {
+                        for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                            int index = client * REQUESTS_PER_CLIENT + r;
+                            latencies[index] = connection.request(RESOURCES[index % RESOURCES.length]);
+                        }
+                    }
+                    return null;
+                });
+            }
+            begin = System.nanoTime();
+            start.countDown();
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        long[] successful = Arrays.stream(latencies).filter(latency -> latency >= 0).sorted().toArray();
+        return new Result(successful, latencies.length - successful.length, elapsed);
+    }
+
+    /**
+     * Opens connections that send one kept-alive request each and then stay idle.
+     */
+    private static List<Client> openIdleConnections() {
+        List<Client> idle = new ArrayList<>();
+        for (int i = 0; i < IDLE_CONNECTIONS; i++) {
+            Client client = new Client(true);
+            client.request("/styles.css");
+            idle.add(client);
+        }
+        return idle;
+    }
+
+    /**
+     * A client that sends requests one after the other, on a new connection for each
+     * request or on one kept-alive connection, reconnecting when the server closes it.
+     */
+    private static final class Client implements Closeable {
+        private final boolean keepAlive;
+        private Socket socket;
+        private InputStream in;
+        private boolean closedByServer;
+
+        Client(boolean keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+
+        /**
+         * Sends one request and reads the whole response. Like a browser, it sends
+         * the request again on a new connection if a reused one was closed by the
+         * server before any response arrived.
+         *
+         * @return The latency in nanoseconds, or -1 if the request failed.
+         */
+        long request(String resource) {
+            long begin = System.nanoTime();
+            boolean reused = socket != null;
+            try {
+                boolean ok;
+                try {
+                    ok = send(resource);
+                } catch (EOFException | SocketException e) {
+                    if (!reused) {
+                        throw e;
+                    }
+                    close();
+                    ok = send(resource);
+                }
+                return ok ? System.nanoTime() - begin : -1;
+            } catch (IOException e) {
+                close();
+                return -1;
+            }
+        }
+
+        private boolean send(String resource) throws IOException {
+            if (socket == null) {
+                socket = new Socket();
+                socket.connect(new InetSocketAddress(HOST, PORT), TIMEOUT_MILLIS);
+                socket.setSoTimeout(TIMEOUT_MILLIS);
+                in = new BufferedInputStream(socket.getInputStream());
+            }
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET " + resource + " HTTP/1.1\r\nHost: " + HOST + ":" + PORT + "\r\nConnection: "
+                    + (keepAlive ? "keep-alive" : "close") + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            boolean ok = readResponse();
+            if (!keepAlive || closedByServer) {
+                close();
+            }
+            return ok;
+        }
+
+        /**
+         * Reads the status line, the headers and the body of a response, and notes
+         * whether the server is closing the connection.
+         *
+         * @return True if the status is 200.
+         */
+        private boolean readResponse() throws IOException {
+            String statusLine = readLine();
+            long contentLength = 0;
+            closedByServer = false;
+            String line;
+            while (!(line = readLine()).isEmpty()) {
+                String lower = line.toLowerCase(Locale.ROOT);
+                if (lower.startsWith("content-length:")) {
+                    contentLength = Long.parseLong(line.substring(15).trim());
+                } else if (lower.equals("connection: close")) {
+                    closedByServer = true;
+                }
+            }
+            byte[] buffer = new byte[8192];
+            for (long remaining = contentLength; remaining > 0;) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    throw new EOFException("The response ended before its Content-Length");
+                }
+                remaining -= read;
+            }
+            return statusLine.startsWith("HTTP/1.1 200");
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder line = new StringBuilder();
+            int b;
+            while ((b = in.read()) != '\n') {
+                if (b < 0) {
+                    throw new EOFException("The connection was closed");
+                }
+                if (b != '\r') {
+                    line.append((char) b);
+                }
+            }
+            return line.toString();
+        }
+
+        @Override
+        public void close() {
+            if (socket != null) {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    // The connection is discarded either way.
+                }
+                socket = null;
+            }
+        }
+    }
+
+    private static void print(String mode, String connections, int clients, Result result) {
+        long[] latencies = result.latencies();
+        double seconds = result.elapsed() / 1e9;
+        System.out.printf("%-8s %-11s %8d %9d %7d %10.0f %12.0f %9.1f %9.1f%n", mode, connections, clients,
+                latencies.length + result.failed(), result.failed(), seconds * 1_000, latencies.length / seconds,
+                percentile(latencies, 50) / 1e6, percentile(latencies, 99) / 1e6);
+    }
+
+    /**
+     * Returns the nearest-rank percentile of sorted values, or 0 if there are none.
+     */
+    private static long percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    /**
+     * Starts the WebServer in the given mode in a new JVM, with its console output
+     * discarded, and waits until it accepts connections.
+     */
+    private static Process startServer(String mode) throws IOException, InterruptedException, URISyntaxException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String classPath = Path.of(WebServer.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                .toString();
+        Process server = new ProcessBuilder(java, "-cp", classPath, WebServer.class.getName(), mode)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!isListening()) {
+            if (!server.isAlive() || System.nanoTime() > deadline) {
+                server.destroyForcibly();
+                throw new IOException("The server did not start in " + mode + " mode");
+            }
+            Thread.sleep(100);
+        }
+        return server;
+    }
+
+    private static void stopServer(Process server) throws InterruptedException {
+        server.destroy();
+        if (!server.waitFor(10, TimeUnit.SECONDS)) {
+            server.destroyForcibly().waitFor();
+        }
+    }
+
+    private static boolean isListening() {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(HOST, PORT), 1_000);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
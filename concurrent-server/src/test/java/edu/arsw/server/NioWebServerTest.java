@@ -0,0 +1,144 @@
+package edu.arsw.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the NioWebServer class, sending real HTTP requests over the loopback
+ * interface to a server with two event loops.
+ */
+class NioWebServerTest {
+
+    @TempDir
+    Path tempDir;
+    private byte[] largeFile;
+    private NioWebServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.writeString(tempDir.resolve("index.html"), "<html><body>Hello Test!</body></html>");
+        Files.writeString(tempDir.resolve("styles.css"), "body { color: red; }");
+        largeFile = new byte[8 * 1024 * 1024];
+        new Random(21).nextBytes(largeFile);
+        Files.write(tempDir.resolve("large.bin"), largeFile);
+
+        server = new NioWebServer(0, tempDir.toString(), 2);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.close();
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket("localhost", server.getPort());
+        socket.setSoTimeout(10_000);
+        return socket;
+    }
+
+    private static void send(Socket socket, String path) throws IOException {
+        String request = "GET " + path + " HTTP/1.1\r\nHost: localhost\r\n\r\n";
+        socket.getOutputStream().write(request.getBytes(StandardCharsets.US_ASCII));
+        socket.getOutputStream().flush();
+    }
+
+    private byte[] request(String path) throws IOException {
+        try (Socket socket = connect()) {
+            send(socket, path);
+            return socket.getInputStream().readAllBytes();
+        }
+    }
+
+    @Test
+    @DisplayName("Should serve 'index.html' by default for the '/' path")
+    void shouldServeDefaultIndexHtml() throws IOException {
+        String response = new String(request("/"), StandardCharsets.UTF_8);
+
+        assertTrue(response.startsWith("HTTP/1.1 200 OK"));
+        assertTrue(response.contains("Content-Type: text/html"));
+        assertTrue(response.contains("Connection: close"));
+        assertTrue(response.endsWith("<html><body>Hello Test!</body></html>"));
+    }
+
+    @Test
+    @DisplayName("Should return 404 and 403 like the blocking handler")
+    void shouldReturnErrors() throws IOException {
+        String notFound = new String(request("/nonexistent.html"), StandardCharsets.UTF_8);
+        String forbidden = new String(request("/../passwd"), StandardCharsets.UTF_8);
+
+        assertTrue(notFound.startsWith("HTTP/1.1 404 Not Found"));
+        assertTrue(notFound.contains("Error 404: Not Found"));
+        assertTrue(forbidden.startsWith("HTTP/1.1 403 Forbidden"));
+        assertTrue(forbidden.contains("Error 403: Forbidden"));
+    }
+
+    @Test
+    @DisplayName("Should send a file larger than the socket buffers")
+    void shouldServeLargeFile() throws IOException {
+        byte[] response = request("/large.bin");
+        String header = new String(response, 0, 300, StandardCharsets.ISO_8859_1);
+        int headerEnd = header.indexOf("\r\n\r\n") + 4;
+
+        assertTrue(header.contains("Content-Length: " + largeFile.length));
+        assertArrayEquals(largeFile, Arrays.copyOfRange(response, headerEnd, response.length));
+    }
+
+    @Test
+    @DisplayName("Should keep thousands of connections open on two threads")
+    void shouldServeManyConcurrentConnections() throws IOException {
+        List<Socket> sockets = new ArrayList<>();
+        try {
+            // Every connection is open before any request is sent.
+            for (int i = 0; i < 2_000; i++) {
+                sockets.add(connect());
+            }
+            for (Socket socket : sockets) {
+                send(socket, "/styles.css");
+            }
+            for (Socket socket : sockets) {
+                String response = new String(socket.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+                assertTrue(response.startsWith("HTTP/1.1 200 OK"));
+                assertTrue(response.endsWith("body { color: red; }"));
+            }
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should serve cached responses from the content cache")
+    void shouldServeFromContentCache() throws IOException {
+        try (ContentCache cache = new ContentCache(tempDir.toString(), 1024 * 1024);
+                NioWebServer cachedServer = new NioWebServer(0, tempDir.toString(), 1, cache)) {
+            cachedServer.start();
+            for (int i = 0; i < 2; i++) {
+                try (Socket socket = new Socket("localhost", cachedServer.getPort())) {
+                    socket.setSoTimeout(10_000);
+                    send(socket, "/");
+                    String response = new String(socket.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+
+                    assertTrue(response.startsWith("HTTP/1.1 200 OK"));
+                    assertTrue(response.contains("Connection: close"));
+                    assertTrue(response.endsWith("<html><body>Hello Test!</body></html>"));
+                }
+            }
+            assertEquals(1, cache.size());
+        }
+    }
+}
@@ -6,9 +6,15 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import java.io.*;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -45,6 +51,10 @@ class RequestHandlerTest {
     }
 
     private ByteArrayOutputStream executeRequest(String httpRequest) throws IOException {
+        return executeRequest(httpRequest, null);
+    }
+
+    private ByteArrayOutputStream executeRequest(String httpRequest, ContentCache cache) throws IOException {
         InputStream simulatedIn = new ByteArrayInputStream(httpRequest.getBytes());
         simulatedOut = new ByteArrayOutputStream();
 
@@ -52,7 +62,7 @@ class RequestHandlerTest {
         when(mockSocket.getInputStream()).thenReturn(simulatedIn);
         when(mockSocket.getOutputStream()).thenReturn(simulatedOut);
 
-        RequestHandler handler = new RequestHandler(mockSocket, webRootPath.toString());
+        RequestHandler handler = new RequestHandler(mockSocket, webRootPath.toString(), cache);
         handler.run();
 
         verify(mockSocket).close();
@@ -126,4 +136,140 @@ class RequestHandlerTest {
         assertTrue(response.contains("Error 403: Forbidden"));
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Should answer pipelined requests on one connection in order")
+    void shouldAnswerPipelinedRequestsInOrder() throws IOException {
+        String httpRequest = "GET /styles.css HTTP/1.1\r\nHost: localhost:8080\r\n\r\n"
+                + "POST /nonexistent.html HTTP/1.1\r\nHost: localhost:8080\r\nContent-Length: 5\r\n\r\nhello"
+                + "GET / HTTP/1.1\r\nHost: localhost:8080\r\n\r\n";
+        String response = executeRequest(httpRequest).toString();
+
+        int css = response.indexOf("body { color: red; }");
+        int notFound = response.indexOf("HTTP/1.1 404 Not Found");
+        int index = response.indexOf("<html><body>Hello Test!</body></html>");
+        assertTrue(css > 0 && notFound > css && index > notFound);
+        assertEquals(3, response.split("Connection: keep-alive", -1).length - 1);
+    }
+
+    @Test
+    @DisplayName("Should close the connection after a request with 'Connection: close'")
+    void shouldCloseConnectionWhenRequested() throws IOException {
+        String httpRequest = "GET /styles.css HTTP/1.1\r\nHost: localhost:8080\r\nConnection: close\r\n\r\n"
+                + "GET / HTTP/1.1\r\nHost: localhost:8080\r\n\r\n";
+        String response = executeRequest(httpRequest).toString();
+
+        assertTrue(response.contains("Connection: close"));
+        assertTrue(response.endsWith("body { color: red; }"));
+        assertFalse(response.contains("Hello Test!"));
+    }
+
+    @Test
+    @DisplayName("Should keep HTTP/1.0 connections open only when asked to")
+    void shouldKeepHttp10ConnectionsAliveOnlyOnRequest() throws IOException {
+        String closed = executeRequest("GET /styles.css HTTP/1.0\r\n\r\nGET / HTTP/1.0\r\n\r\n").toString();
+        String kept = executeRequest("GET /styles.css HTTP/1.0\r\nConnection: Keep-Alive\r\n\r\n"
+                + "GET / HTTP/1.0\r\n\r\n").toString();
+
+        assertTrue(closed.contains("Connection: close"));
+        assertFalse(closed.contains("Hello Test!"));
+        assertTrue(kept.contains("Connection: keep-alive"));
+        assertTrue(kept.endsWith("<html><body>Hello Test!</body></html>"));
+    }
+
+    @Test
+    @DisplayName("Should transfer large files to a socket channel on a kept-alive connection")
+    void shouldTransferFilesToSocketChannel() throws Exception {
+        byte[] largeFile = new byte[8 * 1024 * 1024];
+        new Random(24).nextBytes(largeFile);
+        Files.write(webRootPath.resolve("large.bin"), largeFile);
+
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            serverChannel.bind(new InetSocketAddress("localhost", 0));
+            try (Socket client = new Socket("localhost", serverChannel.socket().getLocalPort())) {
+                Thread handler = Thread.ofVirtual()
+                        .start(new RequestHandler(serverChannel.accept().socket(), webRootPath.toString()));
+                client.getOutputStream().write(("GET /large.bin HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                        + "GET /styles.css HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n").getBytes());
+                byte[] response = client.getInputStream().readAllBytes();
+                handler.join();
+
+                String text = new String(response, StandardCharsets.ISO_8859_1);
+                int bodyStart = text.indexOf("\r\n\r\n") + 4;
+                assertTrue(text.startsWith("HTTP/1.1 200 OK"));
+                assertTrue(text.contains("Content-Length: " + largeFile.length));
+                assertArrayEquals(largeFile,
+                        Arrays.copyOfRange(response, bodyStart, bodyStart + largeFile.length));
+                assertTrue(text.endsWith("body { color: red; }"));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should answer from the content cache like from the file system")
+    void shouldServeFromContentCache() throws IOException {
+        String httpRequest = "GET /styles.css HTTP/1.1\r\nHost: localhost:8080\r\n\r\n"
+                + "GET /styles.css HTTP/1.1\r\nHost: localhost:8080\r\n\r\n"
+                + "GET /nonexistent.html HTTP/1.1\r\nHost: localhost:8080\r\nConnection: close\r\n\r\n";
+        String uncached = executeRequest(httpRequest).toString();
+        try (ContentCache cache = new ContentCache(webRootPath.toString(), 1024 * 1024)) {
+            String cached = executeRequest(httpRequest, cache).toString();
+
+            assertEquals(1, cache.size());
+            assertEquals(uncached.replaceAll("Date: [^\r]*", ""), cached.replaceAll("Date: [^\r]*", ""));
+            assertTrue(cached.endsWith("Error 404: Not Found</h1><p>The requested resource could not be found or"
+                    + " you do not have permission.</p></body></html>"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should give up an idle kept-alive connection when other connections wait for a thread")
+    void shouldReleaseIdleConnectionWhenSaturated() throws Exception {
+        AtomicBoolean saturated = new AtomicBoolean();
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            serverChannel.bind(new InetSocketAddress("localhost", 0));
+            try (Socket client = new Socket("localhost", serverChannel.socket().getLocalPort())) {
+                client.setSoTimeout(10_000);
+                Thread handler = Thread.ofVirtual().start(new RequestHandler(serverChannel.accept().socket(),
+                        webRootPath.toString(), null, saturated::get));
+                client.getOutputStream().write("GET /styles.css HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes());
+                InputStream in = client.getInputStream();
+                StringBuilder response = new StringBuilder();
+                while (!response.toString().endsWith("body { color: red; }")) {
+                    int next = in.read();
+                    assertTrue(next >= 0, "The connection closed before the response was complete");
+                    response.append((char) next);
+                }
+                String text = response.toString();
+                assertTrue(text.contains("Connection: keep-alive"));
+                assertTrue(text.endsWith("body { color: red; }"));
+
+                long idleSince = System.nanoTime();
+                saturated.set(true);
+                assertEquals(-1, in.read());
+                handler.join();
+
+                // Well before the keep-alive timeout of five seconds.
+                assertTrue(System.nanoTime() - idleSince < 2_000_000_000L);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should not keep a connection alive while other connections wait for a thread")
+    void shouldCloseConnectionWhenSaturated() throws IOException {
+        String httpRequest = "GET /styles.css HTTP/1.1\r\nHost: localhost:8080\r\n\r\n"
+                + "GET / HTTP/1.1\r\nHost: localhost:8080\r\n\r\n";
+        InputStream simulatedIn = new ByteArrayInputStream(httpRequest.getBytes());
+        simulatedOut = new ByteArrayOutputStream();
+        Socket mockSocket = mock(Socket.class);
+        when(mockSocket.getInputStream()).thenReturn(simulatedIn);
+        when(mockSocket.getOutputStream()).thenReturn(simulatedOut);
+
+        new RequestHandler(mockSocket, webRootPath.toString(), null, () -> true).run();
+
+        String response = simulatedOut.toString();
+        verify(mockSocket).close();
+        assertTrue(response.contains("Connection: close"));
+        assertFalse(response.contains("Hello Test!"));
+    }
+}
@@ -0,0 +1,213 @@
+package edu.arsw.server;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * A benchmark of the throughput of RequestHandler when sending static files of
+ * different sizes, with and without zero-copy transfers.
+ * In the {@code stream} mode the connections are accepted by a ServerSocket, whose
+ * sockets have no channel, so files are copied through the socket output stream. In
+ * the {@code transferTo} mode they are accepted by a ServerSocketChannel, as in
+ * WebServer, and files are sent with FileChannel.transferTo. For each file one client
+ * downloads it again and again on a single kept-alive connection, and the benchmark
+ * reports the requests and megabytes per second of each mode.
+ */
+public class TransferBenchmark {
+
+    private static final long WARM_UP_NANOS = 1_000_000_000L;
+    private static final long MEASURE_NANOS = 3_000_000_000L;
+    private static final int[] GENERATED_MEGABYTES = { 1, 16, 128 };
+    private static final String[] MODES = { "stream", "transferTo" };
+
+    /**
+     * A listening socket of one of the two modes.
+     */
+    private interface Acceptor extends Closeable {
+        Socket accept() throws IOException;
+
+        int port();
+    }
+
+    /**
+     * The main method to run the benchmark.
+     *
+     * @throws Exception If the files cannot be created or a transfer fails.
+     */
+    public static void main(String[] args) throws Exception {
+        Path webRoot = Files.createTempDirectory("transfer-benchmark");
+        Files.copy(Path.of("resources", "image.jpg"), webRoot.resolve("image.jpg"));
+        List<String> files = new ArrayList<>(List.of("image.jpg"));
+        Random random = new Random(24);
+        for (int megabytes : GENERATED_MEGABYTES) {
+            byte[] content = new byte[megabytes << 20];
+            random.nextBytes(content);
+            files.add(megabytes + "mb.bin");
+            Files.write(webRoot.resolve(files.get(files.size() - 1)), content);
+        }
+
+        // RequestHandler logs every request, and the log would be measured with the transfer.
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            console.printf("%-10s %-11s %12s %10s%n", "File", "Mode", "Requests/s", "MB/s");
+            for (String file : files) {
+                double[] megabytesPerSecond = new double[MODES.length];
+                for (int i = 0; i < MODES.length; i++) {
+                    double[] result = run(webRoot, file, MODES[i]);
+                    megabytesPerSecond[i] = result[1];
+                    console.printf(Locale.ROOT, "%-10s %-11s %12.0f %10.1f%n", file, MODES[i], result[0], result[1]);
+                }
+                console.printf(Locale.ROOT, "%-10s %-11s %12s %9.2fx%n", file, "speedup", "",
+                        megabytesPerSecond[1] / megabytesPerSecond[0]);
+            }
+        } finally {
+            System.setOut(console);
+            try (Stream<Path> walk = Files.walk(webRoot)) {
+                walk.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    /**
+     * Serves one file in the given mode to a client that downloads it repeatedly,
+     * first to warm up and then while measuring.
+     *
+     * @return The requests per second and the megabytes per second.
+     */
+    private static double[] run(Path webRoot, String file, String mode) throws Exception {
+        try (Acceptor acceptor = open(mode);
+                Socket client = new Socket(InetAddress.getLoopbackAddress(), acceptor.port())) {
+            Thread server = Thread.ofPlatform().start(new RequestHandler(acceptor.accept(), webRoot.toString()));
+
+            byte[] request = ("GET /" + file + " HTTP/1.1\r\nHost: localhost\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            OutputStream out = client.getOutputStream();
+            InputStream in = new BufferedInputStream(client.getInputStream());
+            byte[] buffer = new byte[64 * 1024];
+
+            long warmUpEnd = System.nanoTime() + WARM_UP_NANOS;
+            while (System.nanoTime() < warmUpEnd) {
+                out.write(request);
+                readResponse(in, buffer);
+            }
+
+            long requests = 0;
+            long bytes = 0;
+            long begin = System.nanoTime();
+            long elapsed;
+            do {
+                out.write(request);
+                bytes += readResponse(in, buffer);
+                requests++;
+                elapsed = System.nanoTime() - begin;
+            } while (elapsed < MEASURE_NANOS);
+
+            client.shutdownOutput();
+            server.join();
+            double seconds = elapsed / 1e9;
+            return new double[] { requests / seconds, bytes / seconds / (1 << 20) };
+        }
+    }
+
+    /**
+     * Reads one response and discards its body.
+     *
+     * @return The length of the body.
+     */
+    private static long readResponse(InputStream in, byte[] buffer) throws IOException {
+        String statusLine = readLine(in);
+        if (!statusLine.startsWith("HTTP/1.1 200")) {
+            throw new IOException("Unexpected response: " + statusLine);
+        }
+        long contentLength = -1;
+        String line;
+        while (!(line = readLine(in)).isEmpty()) {
+            if (line.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                contentLength = Long.parseLong(line.substring(15).trim());
+            }
+        }
+        for (long remaining = contentLength; remaining > 0;) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                throw new EOFException("The response ended before its Content-Length");
+            }
+            remaining -= read;
+        }
+        return contentLength;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                throw new EOFException("The connection was closed");
+            }
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        return line.toString();
+    }
+
+    private static Acceptor open(String mode) throws IOException {
+        if (mode.equals("stream")) {
+            ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+            return new Acceptor() {
+                @Override
+                public Socket accept() throws IOException {
+                    return serverSocket.accept();
+                }
+
+                @Override
+                public int port() {
+                    return serverSocket.getLocalPort();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    serverSocket.close();
+                }
+            };
+        }
+        ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1);
+        return new Acceptor() {
+            @Override
+            public Socket accept() throws IOException {
+                return serverChannel.accept().socket();
+            }
+
+            @Override
+            public int port() {
+                return serverChannel.socket().getLocalPort();
+            }
+
+            @Override
+            public void close() throws IOException {
+                serverChannel.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,131 @@
+package edu.arsw.oodesing;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link CustomLinkedList} with {@link ArrayList} and {@link LinkedList} for
+ * the operations the statistics use: appending, indexed reads in order and at
+ * random, and iteration.
+ * <p>
+ * The values are boxed once during setup, so allocation rates reported by
+ * {@code -prof gc} only count the memory of the lists themselves.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListBenchmark {
+
+    /** The number of random reads per operation of {@link #getRandom()}. */
+    private static final int RANDOM_READS = 1_000;
+
+    /** The list implementation. */
+    @Param({ "custom", "array", "linked" })
+    public String implementation;
+
+    /** The number of elements. */
+    @Param({ "1000", "100000" })
+    public int size;
+
+    private Double[] values;
+    private int[] randomIndexes;
+    private List<Double> list;
+
+    /**
+     * Boxes the values, builds the list read by the get and iterate benchmarks, and
+     * draws the random indexes.
+     */
+    @Setup
+    public void prepare() {
+        Random random = new Random(19);
+        values = new Double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextGaussian();
+        }
+        randomIndexes = random.ints(RANDOM_READS, 0, size).toArray();
+        list = add();
+    }
+
+    /**
+     * Appends every value to a new list.
+     *
+     * @return the list, so the work cannot be optimized away.
+     */
+    @Benchmark
+    public List<Double> add() {
+        List<Double> target = newList();
+        for (Double value : values) {
+            target.add(value);
+        }
+        return target;
+    }
+
+    /**
+     * Reads every element by index, in order.
+     *
+     * @return the sum of the elements.
+     */
+    @Benchmark
+    public double getSequential() {
+        double sum = 0.0;
+        for (int i = 0; i < size; i++) {
+            sum += list.get(i);
+        }
+        return sum;
+    }
+
+    /**
+     * Reads a fixed number of elements at random indexes.
+     *
+     * @return the sum of the elements read.
+     */
+    @Benchmark
+    public double getRandom() {
+        double sum = 0.0;
+        for (int index : randomIndexes) {
+            sum += list.get(index);
+        }
+        return sum;
+    }
+
+    /**
+     * Reads every element with the list's iterator.
+     *
+     * @return the sum of the elements.
+     */
+    @Benchmark
+    public double iterate() {
+        double sum = 0.0;
+        for (Double value : list) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    private List<Double> newList() {
+        return switch (implementation) {
+            case "custom" -> new CustomLinkedList<>();
+            case "array" -> new ArrayList<>();
+            case "linked" -> new LinkedList<>();
+            default -> throw new IllegalArgumentException("Unknown list: " + implementation);
+        };
+    }
+}
@@ -0,0 +1,119 @@
+package edu.arsw.oodesing;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the whole path from a file of numbers to its statistics, for every
+ * storage mode of the application and several file sizes.
+ * <p>
+ * Each operation reads the file, stores or streams the values as the application
+ * does, and computes count, mean, standard deviation, minimum and maximum. The file
+ * stays in the page cache, so the results show parsing and storage costs rather than
+ * disk speed. Run with {@code -prof gc} to compare the bytes allocated per operation.
+ * <p>
+ * The {@code off-heap} mode reuses one {@link OffHeapDoubleList}, cleared before
+ * every operation. A new list would allocate and zero an 8 MB direct chunk per
+ * operation, released only when the garbage collector runs its Cleaner: at 1,000
+ * lines that would dominate the time, and {@code -prof gc} does not report direct
+ * memory. A single run of the application pays that allocation once per 2^20 values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+@State(Scope.Benchmark)
+public class PipelineBenchmark {
+
+    /** The storage mode, named after the application's flags. */
+    @Param({ "linked", "array", "off-heap", "stream", "parallel" })
+    public String mode;
+
+    /** The number of lines of the file. */
+    @Param({ "1000", "100000", "1000000" })
+    public int lines;
+
+    private Path file;
+    private StatisticsCalculator calculator;
+    private OffHeapDoubleList offHeap;
+
+    /**
+     * Writes a file of normally distributed numbers with four decimals.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    @Setup
+    public void prepare() throws IOException {
+        file = Files.createTempFile("oodesing-pipeline", ".txt");
+        Random random = new Random(19);
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < lines; i++) {
+                writer.write(Double.toString(Math.round((100 + 15 * random.nextGaussian()) * 1e4) / 1e4));
+                writer.newLine();
+            }
+        }
+        calculator = new StatisticsCalculator();
+        offHeap = new OffHeapDoubleList();
+    }
+
+    /**
+     * Deletes the file.
+     *
+     * @throws IOException if the file cannot be deleted.
+     */
+    @TearDown
+    public void cleanUp() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Reads the file and computes its statistics.
+     *
+     * @return the statistics, so the work cannot be optimized away.
+     * @throws IOException if the file cannot be read.
+     */
+    @Benchmark
+    public StreamingStatistics analyze() throws IOException {
+        switch (mode) {
+            case "parallel":
+                return ParallelStatistics.compute(file, Runtime.getRuntime().availableProcessors()).statistics();
+            case "stream":
+                StreamingStatistics statistics = new StreamingStatistics();
+                NumberReader.read(file, statistics);
+                return statistics;
+            case "linked":
+                List<Double> boxed = new CustomLinkedList<>();
+                NumberReader.read(file, boxed::add);
+                return calculator.summarize(boxed);
+            case "off-heap":
+                offHeap.clear();
+                NumberReader.read(file, offHeap::add);
+                return calculator.summarize(offHeap);
+            case "array":
+                DoubleList array = new ArrayDoubleList();
+                NumberReader.read(file, array::add);
+                return calculator.summarize(array);
+            default:
+                throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+    }
+}
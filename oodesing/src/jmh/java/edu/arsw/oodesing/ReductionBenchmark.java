@@ -0,0 +1,158 @@
+package edu.arsw.oodesing;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the ways of computing the mean and standard deviation of values already
+ * in memory: the Stream API over boxed and primitive values, the Welford
+ * accumulator, and the scalar and vector {@link Reductions} backends. A raw sum is
+ * measured for each backend as well.
+ * <p>
+ * The forks add the {@code jdk.incubator.vector} module; run with
+ * {@code -jvmArgsAppend -Doodesing.vector=false} to check the fallback.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+@State(Scope.Benchmark)
+public class ReductionBenchmark {
+
+    /** The number of values. */
+    @Param({ "1000", "100000", "1000000" })
+    public int size;
+
+    private double[] values;
+    private List<Double> boxed;
+    private StatisticsCalculator streams;
+    private Reductions scalar;
+    private Reductions vector;
+
+    /**
+     * Fills the arrays with normally distributed values and selects the backends.
+     */
+    @Setup
+    public void prepare() {
+        Random random = new Random(42);
+        values = new double[size];
+        boxed = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values[i] = 100 + 15 * random.nextGaussian();
+            boxed.add(values[i]);
+        }
+        streams = new StatisticsCalculator(Reductions.scalar());
+        scalar = Reductions.scalar();
+        vector = Reductions.best();
+        if (vector == scalar) {
+            System.err.println("Warning: the Vector API is not available; 'vector' measures the scalar backend.");
+        }
+    }
+
+    /**
+     * The mean and standard deviation of boxed values with the Stream API, as the
+     * application computed them over its linked list.
+     *
+     * @return the standard deviation.
+     */
+    @Benchmark
+    public double streamsBoxed() {
+        double mean = streams.calculateMean(boxed);
+        return Math.sqrt(boxed.stream()
+                .mapToDouble(value -> (value - mean) * (value - mean))
+                .sum() / (boxed.size() - 1));
+    }
+
+    /**
+     * The mean and standard deviation of the primitive array with the Stream API.
+     *
+     * @return the standard deviation.
+     */
+    @Benchmark
+    public double streams() {
+        double mean = Arrays.stream(values).average().orElse(0.0);
+        return Math.sqrt(Arrays.stream(values)
+                .map(value -> (value - mean) * (value - mean))
+                .sum() / (values.length - 1));
+    }
+
+    /**
+     * The single-pass Welford accumulator over the primitive array.
+     *
+     * @return the standard deviation.
+     */
+    @Benchmark
+    public double welford() {
+        StreamingStatistics statistics = new StreamingStatistics();
+        for (double value : values) {
+            statistics.accept(value);
+        }
+        return statistics.getStandardDeviation();
+    }
+
+    /**
+     * The statistics with the scalar backend, including minimum and maximum.
+     *
+     * @return the standard deviation.
+     */
+    @Benchmark
+    public double scalar() {
+        return scalar.summarize(values, 0, values.length).getStandardDeviation();
+    }
+
+    /**
+     * The statistics with the vector backend, including minimum and maximum.
+     *
+     * @return the standard deviation.
+     */
+    @Benchmark
+    public double vector() {
+        return vector.summarize(values, 0, values.length).getStandardDeviation();
+    }
+
+    /**
+     * A plain sum with the Stream API.
+     *
+     * @return the sum.
+     */
+    @Benchmark
+    public double sumStreams() {
+        return Arrays.stream(values).sum();
+    }
+
+    /**
+     * A plain sum with the scalar backend.
+     *
+     * @return the sum.
+     */
+    @Benchmark
+    public double sumScalar() {
+        return scalar.sum(values, 0, values.length);
+    }
+
+    /**
+     * A plain sum with the vector backend.
+     *
+     * @return the sum.
+     */
+    @Benchmark
+    public double sumVector() {
+        return vector.sum(values, 0, values.length);
+    }
+}
@@ -0,0 +1,103 @@
+package edu.arsw.oodesing;
+
+import java.util.Arrays;
+import java.util.stream.DoubleStream;
+
+/**
+ * A DoubleList backed by a growable double array on the heap.
+ * The array grows by half of its length when it is full, so appends are
+ * amortized O(1) and indexed access is a single array read.
+ */
+public class ArrayDoubleList implements DoubleList {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private double[] values;
+    private int size = 0;
+
+    /**
+     * Creates an empty list with a small initial capacity.
+     */
+    public ArrayDoubleList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty list able to hold the given number of values before growing.
+     *
+     * @param initialCapacity the initial capacity of the list.
+     * @throws IllegalArgumentException if the capacity is negative.
+     */
+    public ArrayDoubleList(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + initialCapacity);
+        }
+        this.values = new double[initialCapacity];
+    }
+
+    /**
+     * Appends the specified value to the end of this list.
+     *
+     * @param value value to be appended to this list.
+     */
+    @Override
+    public void add(double value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(DEFAULT_CAPACITY, values.length + (values.length >> 1)));
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * Returns the value at the specified position in this list.
+     *
+     * @param index index of the value to return.
+     * @return the value at the specified position in this list.
+     */
+    @Override
+    public double get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return values[index];
+    }
+
+    /**
+     * Returns the number of values in this list.
+     *
+     * @return the number of values in this list.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a sequential stream over the backing array.
+     *
+     * @return a stream of the values in proper sequence.
+     */
+    @Override
+    public DoubleStream stream() {
+        return Arrays.stream(values, 0, size);
+    }
+
+    /**
+     * Returns a copy of the values in this list, sized exactly.
+     *
+     * @return an array with the values in proper sequence.
+     */
+    public double[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Returns the backing array without copying it; only the first {@link #size()}
+     * values are part of the list.
+     *
+     * @return the backing array.
+     */
+    double[] elements() {
+        return values;
+    }
+}
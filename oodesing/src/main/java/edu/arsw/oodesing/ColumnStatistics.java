@@ -0,0 +1,233 @@
+package edu.arsw.oodesing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Computes the statistics of every column of a delimited text file, such as a CSV
+ * export, in a single pass.
+ * <p>
+ * Each row is split into fields once, and every field is parsed in place by a
+ * {@link DoubleParser} into the {@link StreamingStatistics} of its column, so the
+ * file is never re-read per column and no String is created per field. The first
+ * non-blank row is a header if any of its fields is not a number; otherwise the
+ * columns are named "column 1", "column 2" and so on. Fields may be enclosed in
+ * double quotes, which allows delimiters inside them and escapes a quote as two
+ * quotes, but a quoted field cannot span several lines. Fields that are not numbers,
+ * including empty ones, are counted per column and skipped. Rows with more fields
+ * than the header add new columns.
+ */
+public final class ColumnStatistics {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The statistics of one column.
+     *
+     * @param name          the name of the column, from the header or by position.
+     * @param statistics    the statistics of the numeric values of the column.
+     * @param invalidValues the number of fields of the column that were not numbers.
+     */
+    public record Column(String name, StreamingStatistics statistics, long invalidValues) {
+    }
+
+    private ColumnStatistics() {
+        // Utility class with static methods only.
+    }
+
+    /**
+     * Reads a comma-separated file and computes the statistics of every column.
+     *
+     * @param file the file to read.
+     * @return the columns, in file order.
+     * @throws IOException if the file cannot be read.
+     */
+    public static List<Column> compute(Path file) throws IOException {
+        return compute(file, ',');
+    }
+
+    /**
+     * Reads a delimited file and computes the statistics of every column.
+     *
+     * @param file      the file to read.
+     * @param delimiter the ASCII character that separates the fields.
+     * @return the columns, in file order.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if the delimiter is not a printable ASCII
+     *         character other than a double quote.
+     */
+    public static List<Column> compute(Path file, char delimiter) throws IOException {
+        if (delimiter != '\t' && (delimiter <= ' ' || delimiter >= 127 || delimiter == '"')) {
+            throw new IllegalArgumentException("Invalid delimiter: '" + delimiter + "'");
+        }
+        RowParser rows = new RowParser((byte) delimiter);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            byte[] bytes = new byte[BUFFER_SIZE];
+            int pending = 0;
+
+            while (true) {
+                if (pending == bytes.length) {
+                    // A row longer than the buffer: grow it instead of splitting the row.
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+                int read = channel.read(ByteBuffer.wrap(bytes, pending, bytes.length - pending));
+                if (read < 0) {
+                    break;
+                }
+
+                int limit = pending + read;
+                int lineStart = 0;
+                for (int i = pending; i < limit; i++) {
+                    if (bytes[i] == '\n') {
+                        rows.accept(bytes, lineStart, i);
+                        lineStart = i + 1;
+                    }
+                }
+                pending = limit - lineStart;
+                System.arraycopy(bytes, lineStart, bytes, 0, pending);
+            }
+            if (pending > 0) {
+                rows.accept(bytes, 0, pending);
+            }
+        }
+        return rows.columns();
+    }
+
+    /**
+     * Splits rows into fields and feeds them to the accumulators of their columns.
+     */
+    private static final class RowParser {
+        private final byte delimiter;
+        private final DoubleParser parser = new DoubleParser();
+        private final List<String> names = new ArrayList<>();
+        private final List<StreamingStatistics> statistics = new ArrayList<>();
+        private long[] invalidValues = new long[0];
+        private boolean firstRow = true;
+
+        // The bounds of the fields of the current row, reused between rows.
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+
+        RowParser(byte delimiter) {
+            this.delimiter = delimiter;
+        }
+
+        void accept(byte[] bytes, int from, int to) {
+            if (firstRow && to - from >= 3 && bytes[from] == (byte) 0xEF && bytes[from + 1] == (byte) 0xBB
+                    && bytes[from + 2] == (byte) 0xBF) {
+                from += 3;
+            }
+            if (isBlank(bytes, from, to)) {
+                return;
+            }
+            int fields = split(bytes, from, to);
+
+            if (firstRow) {
+                firstRow = false;
+                if (isHeader(bytes, fields)) {
+                    for (int f = 0; f < fields; f++) {
+                        addColumn(text(bytes, starts[f], ends[f]));
+                    }
+                    return;
+                }
+            }
+
+            while (statistics.size() < fields) {
+                addColumn("column " + (statistics.size() + 1));
+            }
+            for (int f = 0; f < fields; f++) {
+                if (parser.parse(bytes, starts[f], ends[f])) {
+                    statistics.get(f).accept(parser.getValue());
+                } else {
+                    invalidValues[f]++;
+                }
+            }
+        }
+
+        List<Column> columns() {
+            List<Column> columns = new ArrayList<>(statistics.size());
+            for (int c = 0; c < statistics.size(); c++) {
+                columns.add(new Column(names.get(c), statistics.get(c), invalidValues[c]));
+            }
+            return columns;
+        }
+
+        /**
+         * Finds the bounds of the fields of a row, without the quotes of quoted fields.
+         *
+         * @return the number of fields.
+         */
+        private int split(byte[] bytes, int from, int to) {
+            int fields = 0;
+            int i = from;
+            while (true) {
+                if (fields == starts.length) {
+                    starts = Arrays.copyOf(starts, fields * 2);
+                    ends = Arrays.copyOf(ends, fields * 2);
+                }
+                int start = i;
+                while (start < to && (bytes[start] == ' ' || bytes[start] == '\t') && bytes[start] != delimiter) {
+                    start++;
+                }
+                if (start < to && bytes[start] == '"') {
+                    i = start + 1;
+                    starts[fields] = i;
+                    while (i < to && !(bytes[i] == '"' && (i + 1 >= to || bytes[i + 1] != '"'))) {
+                        i += bytes[i] == '"' ? 2 : 1;
+                    }
+                    ends[fields] = i;
+                    while (i < to && bytes[i] != delimiter) {
+                        i++;
+                    }
+                } else {
+                    starts[fields] = i;
+                    while (i < to && bytes[i] != delimiter) {
+                        i++;
+                    }
+                    ends[fields] = i;
+                }
+                fields++;
+                if (i >= to) {
+                    return fields;
+                }
+                i++;
+            }
+        }
+
+        private boolean isHeader(byte[] bytes, int fields) {
+            for (int f = 0; f < fields; f++) {
+                if (!isBlank(bytes, starts[f], ends[f]) && !parser.parse(bytes, starts[f], ends[f])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void addColumn(String name) {
+            names.add(name.isEmpty() ? "column " + (names.size() + 1) : name);
+            statistics.add(new StreamingStatistics());
+            invalidValues = Arrays.copyOf(invalidValues, statistics.size());
+        }
+
+        private static String text(byte[] bytes, int from, int to) {
+            return new String(bytes, from, to - from, StandardCharsets.UTF_8).replace("\"\"", "\"").strip();
+        }
+
+        private static boolean isBlank(byte[] bytes, int from, int to) {
+            for (int i = from; i < to; i++) {
+                if ((bytes[i] & 0xFF) > ' ') {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -1,160 +1,930 @@
 package edu.arsw.oodesing;
 
+import java.lang.reflect.Array;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
- * A custom implementation of a singly linked list.
+ * A custom implementation of an unrolled doubly linked list.
  * This class implements the List interface to be compliant with Java's Collections API.
+ * <p>
+ * Each node holds up to {@link #NODE_CAPACITY} elements in a small array, and the list
+ * keeps references to its first and last nodes. Appending is therefore O(1), iteration
+ * reads contiguous arrays instead of chasing one pointer per element, and indexed
+ * access skips whole nodes at a time from the closest of the head, the tail or the
+ * node of the last indexed access. Reading the list in order with {@code get(i)}
+ * costs O(1) per element. Inserting or removing in the middle shifts at most one node
+ * and splits or merges nodes as needed.
+ * <p>
+ * The list does not implement {@link RandomAccess}: indexed access far from the last
+ * one is O(n / NODE_CAPACITY), so generic algorithms should keep using iterators.
+ * Iterators and spliterators are fail-fast: they throw a
+ * {@link ConcurrentModificationException} when the list is structurally modified
+ * other than through the iterator itself. Like the other lists of the Collections
+ * API, this class is not synchronized.
  *
  * @param <E> the type of elements held in this collection.
  */
-public class CustomLinkedList<E> implements List<E> {
+public class CustomLinkedList<E> extends AbstractList<E> implements List<E> {
+
+    /**
+     * The maximum number of elements stored in a single node.
+     */
+    static final int NODE_CAPACITY = 64;
 
     /**
      * A static inner class to represent each node in the list.
-     * It holds the data item and a reference to the next node.
+     * It holds a block of data items and references to its neighbours.
      */
     private static class Node<E> {
-        public E item;
+        public final Object[] items = new Object[NODE_CAPACITY];
+        public int count;
+        public Node<E> prev;
         public Node<E> next;
 
-        public Node(E element) {
-            this.item = element;
-            this.next = null;
+        @SuppressWarnings("unchecked")
+        public E item(int index) {
+            return (E) items[index];
         }
     }
 
-
-
     private Node<E> head;
+    private Node<E> tail;
     private int size = 0;
 
+    // The node found by the last indexed access and the list index of its first item.
+    private Node<E> finger;
+    private int fingerStart;
+
+    /**
+     * Creates an empty list.
+     */
+    public CustomLinkedList() {
+        // Nodes are allocated as elements are added.
+    }
+
     /**
-     * Appends the specified element to the end of this list.
+     * Creates a list with the elements of a collection, in the order of its iterator.
+     *
+     * @param c the collection whose elements are placed into this list.
+     */
+    public CustomLinkedList(Collection<? extends E> c) {
+        addAll(c);
+    }
+
+    /**
+     * Appends the specified element to the end of this list in constant time.
      *
      * @param e element to be appended to this list.
      * @return true (as specified by Collection.add).
      */
     @Override
     public boolean add(E e) {
-        final Node<E> newNode = new Node<>(e);
-        if (head == null) {
-            head = newNode;
-        } else {
-            Node<E> current = head;
-            while (current.next != null) {
-                current = current.next;
-            }
-            current.next = newNode;
+        if (tail == null || tail.count == NODE_CAPACITY) {
+            linkBetween(tail, new Node<>(), null);
         }
+        tail.items[tail.count++] = e;
         size++;
+        modCount++;
         return true;
     }
 
     /**
-     * Returns the element at the specified position in this list.
+     * Inserts the specified element at the specified position in this list. Only the
+     * elements of one node are shifted; a full node is split in two first.
      *
-     * @param index index of the element to return.
-     * @return the element at the specified position in this list.
+     * @param index   index at which the element is to be inserted.
+     * @param element element to be inserted.
      */
     @Override
-    public E get(int index) {
-        if (index < 0 || index >= size) {
-            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    public void add(int index, E element) {
+        checkPositionIndex(index);
+        if (index == size) {
+            add(element);
+            return;
         }
-        Node<E> current = head;
-        for (int i = 0; i < index; i++) {
-            current = current.next;
+
+        Node<E> node = node(index);
+        int offset = index - fingerStart;
+        if (node.count == NODE_CAPACITY) {
+            Node<E> upper = splitAt(node, NODE_CAPACITY / 2);
+            if (offset > node.count) {
+                offset -= node.count;
+                fingerStart += node.count;
+                finger = upper;
+                node = upper;
+            }
         }
-        return current.item;
+        System.arraycopy(node.items, offset, node.items, offset + 1, node.count - offset);
+        node.items[offset] = element;
+        node.count++;
+        size++;
+        modCount++;
     }
 
     /**
-     * Returns the number of elements in this list.
+     * Appends all the elements of a collection to the end of this list. The elements
+     * first fill the free slots of the last node, and the rest are copied into a chain
+     * of full nodes that is linked to the list in one step.
      *
-     * @return the number of elements in this list.
+     * @param c collection containing elements to be added to this list.
+     * @return true if this list changed as a result of the call.
      */
     @Override
-    public int size() {
-        return this.size;
+    public boolean addAll(Collection<? extends E> c) {
+        return addAll(size, c);
     }
 
     /**
-     * Returns an iterator over the elements in this list in proper sequence.
-     * This allows the list to be used in a for-each loop.
+     * Inserts all the elements of a collection at the specified position. The node at
+     * that position is split once and a pre-built chain of full nodes is linked
+     * between its two halves, so the cost does not depend on the size of this list
+     * beyond finding the position.
+     * <p>
+     * Lists that implement {@link RandomAccess} are read by index; other collections
+     * are copied with {@code toArray()} first, which also makes adding a list to
+     * itself safe.
      *
-     * @return an iterator over the elements in this list.
+     * @param index index at which to insert the first element.
+     * @param c     collection containing elements to be added to this list.
+     * @return true if this list changed as a result of the call.
      */
     @Override
-    public Iterator<E> iterator() {
-        return new Iterator<E>() {
-            private Node<E> currentNode = head;
+    public boolean addAll(int index, Collection<? extends E> c) {
+        checkPositionIndex(index);
+        List<?> source = c instanceof RandomAccess && c instanceof List<?> list
+                ? list : Arrays.asList(c.toArray());
+        int count = source.size();
+        if (count == 0) {
+            return false;
+        }
 
-            @Override
-            public boolean hasNext() {
-                return currentNode != null;
+        int from = 0;
+        Node<E> before;
+        Node<E> after;
+        if (index == size) {
+            if (tail != null) {
+                int room = Math.min(NODE_CAPACITY - tail.count, count);
+                for (; from < room; from++) {
+                    tail.items[tail.count++] = source.get(from);
+                }
             }
+            before = tail;
+            after = null;
+        } else {
+            Node<E> node = node(index);
+            int offset = index - fingerStart;
+            if (offset == 0) {
+                before = node.prev;
+                after = node;
+            } else {
+                before = node;
+                after = splitAt(node, offset);
+            }
+            finger = null;
+        }
 
-            @Override
-            public E next() {
-                if (!hasNext()) {
-                    throw new NoSuchElementException();
+        if (from < count) {
+            Node<E> first = new Node<>();
+            Node<E> last = first;
+            for (; from < count; from++) {
+                if (last.count == NODE_CAPACITY) {
+                    Node<E> next = new Node<>();
+                    next.prev = last;
+                    last.next = next;
+                    last = next;
                 }
-                E item = currentNode.item;
-                currentNode = currentNode.next;
-                return item;
+                last.items[last.count++] = source.get(from);
+            }
+            first.prev = before;
+            last.next = after;
+            if (before == null) {
+                head = first;
+            } else {
+                before.next = first;
+            }
+            if (after == null) {
+                tail = last;
+            } else {
+                after.prev = last;
             }
-        };
+        }
+
+        size += count;
+        modCount++;
+        return true;
     }
 
+    /**
+     * Returns the element at the specified position in this list.
+     * <p>
+     * The search starts from whichever of the head, the tail and the node of the
+     * previous access is closest to the index.
+     *
+     * @param index index of the element to return.
+     * @return the element at the specified position in this list.
+     */
     @Override
-    public boolean isEmpty() {
-        return this.size == 0;
+    public E get(int index) {
+        checkElementIndex(index);
+        Node<E> node = node(index);
+        return node.item(index - fingerStart);
     }
 
+    /**
+     * Replaces the element at the specified position in this list.
+     *
+     * @param index   index of the element to replace.
+     * @param element element to be stored at the specified position.
+     * @return the element previously at the specified position.
+     */
+    @Override
+    public E set(int index, E element) {
+        checkElementIndex(index);
+        Node<E> node = node(index);
+        int offset = index - fingerStart;
+        E previous = node.item(offset);
+        node.items[offset] = element;
+        return previous;
+    }
 
+    /**
+     * Removes the element at the specified position in this list.
+     *
+     * @param index the index of the element to be removed.
+     * @return the element previously at the specified position.
+     */
+    @Override
+    public E remove(int index) {
+        checkElementIndex(index);
+        Node<E> node = node(index);
+        int start = fingerStart;
+        int offset = index - start;
+        E removed = node.item(offset);
+        removeAt(node, offset, start);
+        return removed;
+    }
 
-    // --- All other List methods are unsupported for this specific assignment ---
-
+    /**
+     * Removes the first occurrence of the specified element from this list.
+     *
+     * @param o element to be removed from this list, if present.
+     * @return true if this list contained the specified element.
+     */
     @Override
-    public boolean contains(Object o) { throw new UnsupportedOperationException(); }
+    public boolean remove(Object o) {
+        int start = 0;
+        for (Node<E> node = head; node != null; start += node.count, node = node.next) {
+            for (int i = 0; i < node.count; i++) {
+                if (Objects.equals(o, node.items[i])) {
+                    removeAt(node, i, start);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes all the elements that satisfy the given predicate. The predicate is
+     * evaluated for every element first, and the survivors are then compacted into
+     * full nodes in a single pass.
+     *
+     * @param filter a predicate which returns true for elements to be removed.
+     * @return true if any elements were removed.
+     */
     @Override
-    public Object[] toArray() { throw new UnsupportedOperationException(); }
+    public boolean removeIf(Predicate<? super E> filter) {
+        Objects.requireNonNull(filter);
+        int expectedModCount = modCount;
+        BitSet removed = null;
+        int index = 0;
+        for (Node<E> node = head; node != null; node = node.next) {
+            for (int i = 0; i < node.count; i++, index++) {
+                if (filter.test(node.item(i))) {
+                    if (removed == null) {
+                        removed = new BitSet(size);
+                    }
+                    removed.set(index);
+                }
+            }
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        if (removed == null) {
+            return false;
+        }
+
+        int remaining = size - removed.cardinality();
+        if (remaining == 0) {
+            clear();
+            return true;
+        }
+
+        // The write position never overtakes the read position, so the survivors can
+        // be packed into the existing nodes from the head.
+        Node<E> write = head;
+        int written = 0;
+        index = 0;
+        for (Node<E> read = head; read != null; read = read.next) {
+            int count = read.count;
+            for (int i = 0; i < count; i++, index++) {
+                if (!removed.get(index)) {
+                    if (written == NODE_CAPACITY) {
+                        write.count = NODE_CAPACITY;
+                        write = write.next;
+                        written = 0;
+                    }
+                    write.items[written++] = read.items[i];
+                }
+            }
+        }
+        Arrays.fill(write.items, written, NODE_CAPACITY, null);
+        write.count = written;
+        write.next = null;
+        tail = write;
+        size = remaining;
+        finger = null;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Removes all the elements of this list that are contained in the collection.
+     *
+     * @param c collection containing elements to be removed from this list.
+     * @return true if this list changed as a result of the call.
+     */
     @Override
-    public <T> T[] toArray(T[] a) { throw new UnsupportedOperationException(); }
+    public boolean removeAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+        return removeIf(c::contains);
+    }
+
+    /**
+     * Keeps only the elements of this list that are contained in the collection.
+     *
+     * @param c collection containing elements to be retained in this list.
+     * @return true if this list changed as a result of the call.
+     */
     @Override
-    public boolean remove(Object o) { throw new UnsupportedOperationException(); }
+    public boolean retainAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+        return removeIf(e -> !c.contains(e));
+    }
+
+    /**
+     * Removes all the elements from this list. The nodes are released at once.
+     */
     @Override
-    public boolean containsAll(Collection<?> c) { throw new UnsupportedOperationException(); }
+    public void clear() {
+        head = null;
+        tail = null;
+        finger = null;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Returns the number of elements in this list.
+     *
+     * @return the number of elements in this list.
+     */
     @Override
-    public boolean addAll(Collection<? extends E> c) { throw new UnsupportedOperationException(); }
+    public int size() {
+        return this.size;
+    }
+
     @Override
-    public boolean addAll(int index, Collection<? extends E> c) { throw new UnsupportedOperationException(); }
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
     @Override
-    public boolean removeAll(Collection<?> c) { throw new UnsupportedOperationException(); }
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the specified element.
+     *
+     * @param o element to search for.
+     * @return the index of the first occurrence, or -1 if the list does not contain it.
+     */
     @Override
-    public boolean retainAll(Collection<?> c) { throw new UnsupportedOperationException(); }
+    public int indexOf(Object o) {
+        int start = 0;
+        for (Node<E> node = head; node != null; start += node.count, node = node.next) {
+            for (int i = 0; i < node.count; i++) {
+                if (Objects.equals(o, node.items[i])) {
+                    return start + i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the last occurrence of the specified element.
+     *
+     * @param o element to search for.
+     * @return the index of the last occurrence, or -1 if the list does not contain it.
+     */
     @Override
-    public void clear() { throw new UnsupportedOperationException(); }
+    public int lastIndexOf(Object o) {
+        int end = size;
+        for (Node<E> node = tail; node != null; node = node.prev) {
+            end -= node.count;
+            for (int i = node.count - 1; i >= 0; i--) {
+                if (Objects.equals(o, node.items[i])) {
+                    return end + i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns an array with all the elements of this list, sized exactly and filled
+     * with one array copy per node.
+     *
+     * @return an array containing all the elements in this list in proper sequence.
+     */
     @Override
-    public E set(int index, E element) { throw new UnsupportedOperationException(); }
+    public Object[] toArray() {
+        return copyInto(new Object[size]);
+    }
+
+    /**
+     * Returns an array with all the elements of this list, using the given array if
+     * it is large enough and a new array of the same type and exact size otherwise.
+     *
+     * @param a   the array into which the elements are to be stored, if big enough.
+     * @param <T> the component type of the array.
+     * @return an array containing the elements of this list.
+     */
     @Override
-    public void add(int index, E element) { throw new UnsupportedOperationException(); }
+    @SuppressWarnings("unchecked")
+    public <T> T[] toArray(T[] a) {
+        if (a.length < size) {
+            a = (T[]) Array.newInstance(a.getClass().getComponentType(), size);
+        } else if (a.length > size) {
+            a[size] = null;
+        }
+        return (T[]) copyInto(a);
+    }
+
+    /**
+     * Sorts this list by copying it to an array, sorting the array and writing the
+     * elements back into the same nodes.
+     *
+     * @param c the comparator used to compare elements, or null for natural ordering.
+     */
     @Override
-    public E remove(int index) { throw new UnsupportedOperationException(); }
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void sort(Comparator<? super E> c) {
+        int expectedModCount = modCount;
+        Object[] elements = toArray();
+        Arrays.sort(elements, (Comparator) c);
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        int index = 0;
+        for (Node<E> node = head; node != null; node = node.next) {
+            System.arraycopy(elements, index, node.items, 0, node.count);
+            index += node.count;
+        }
+        modCount++;
+    }
+
+    /**
+     * Performs the given action for each element, reading the node arrays directly.
+     *
+     * @param action the action to be performed for each element.
+     */
     @Override
-    public int indexOf(Object o) { throw new UnsupportedOperationException(); }
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        int expectedModCount = modCount;
+        for (Node<E> node = head; node != null && modCount == expectedModCount; node = node.next) {
+            for (int i = 0; i < node.count; i++) {
+                action.accept(node.item(i));
+            }
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Returns an iterator over the elements in this list in proper sequence.
+     * This allows the list to be used in a for-each loop.
+     *
+     * @return a fail-fast iterator over the elements in this list.
+     */
     @Override
-    public int lastIndexOf(Object o) { throw new UnsupportedOperationException(); }
+    public Iterator<E> iterator() {
+        return new ListItr(0);
+    }
+
+    /**
+     * Returns a list iterator over the elements in this list in proper sequence.
+     *
+     * @return a fail-fast list iterator starting at the beginning of the list.
+     */
     @Override
-    public ListIterator<E> listIterator() { throw new UnsupportedOperationException(); }
+    public ListIterator<E> listIterator() {
+        return new ListItr(0);
+    }
+
+    /**
+     * Returns a list iterator over the elements in this list, starting at the
+     * specified position.
+     *
+     * @param index index of the first element to be returned by {@code next()}.
+     * @return a fail-fast list iterator starting at the specified position.
+     */
     @Override
-    public ListIterator<E> listIterator(int index) { throw new UnsupportedOperationException(); }
+    public ListIterator<E> listIterator(int index) {
+        checkPositionIndex(index);
+        return new ListItr(index);
+    }
+
+    /**
+     * Returns a late-binding, fail-fast spliterator over the elements in this list.
+     * It splits at node boundaries, so parallel streams divide the list into halves
+     * of whole nodes that are then traversed array by array.
+     *
+     * @return a spliterator over the elements in this list.
+     */
     @Override
-    public List<E> subList(int fromIndex, int toIndex) { throw new UnsupportedOperationException(); }
+    public Spliterator<E> spliterator() {
+        return new NodeSpliterator<>(this, null, 0, -1, 0);
+    }
+
+    /**
+     * Finds the node holding an element and moves the finger to it.
+     * The caller reads the offset in the node from {@link #fingerStart}.
+     */
+    private Node<E> node(int index) {
+        Node<E> current = head;
+        int start = 0;
+        int distance = index;
+        if (size - index < distance) {
+            current = tail;
+            start = size - tail.count;
+            distance = size - index;
+        }
+        if (finger != null && Math.abs(index - fingerStart) < distance) {
+            current = finger;
+            start = fingerStart;
+        }
+
+        while (index >= start + current.count) {
+            start += current.count;
+            current = current.next;
+        }
+        while (index < start) {
+            current = current.prev;
+            start -= current.count;
+        }
+        finger = current;
+        fingerStart = start;
+        return current;
+    }
+
+    /**
+     * Moves the items of a node from the given offset into a new node linked after it.
+     */
+    private Node<E> splitAt(Node<E> node, int offset) {
+        Node<E> upper = new Node<>();
+        upper.count = node.count - offset;
+        System.arraycopy(node.items, offset, upper.items, 0, upper.count);
+        Arrays.fill(node.items, offset, node.count, null);
+        node.count = offset;
+        linkBetween(node, upper, node.next);
+        return upper;
+    }
+
+    /**
+     * Removes one item from a node that starts at the given list index. An empty node
+     * is unlinked, and a node that is less than half full together with its successor
+     * absorbs it. The finger is left on a node whose start is still known.
+     */
+    private void removeAt(Node<E> node, int offset, int start) {
+        System.arraycopy(node.items, offset + 1, node.items, offset, node.count - offset - 1);
+        node.items[--node.count] = null;
+        size--;
+        modCount++;
+
+        if (node.count == 0) {
+            Node<E> next = node.next;
+            Node<E> prev = node.prev;
+            unlink(node);
+            if (next != null) {
+                finger = next;
+                fingerStart = start;
+            } else if (prev != null) {
+                finger = prev;
+                fingerStart = start - prev.count;
+            } else {
+                finger = null;
+            }
+            return;
+        }
+
+        Node<E> next = node.next;
+        if (next != null && node.count + next.count <= NODE_CAPACITY / 2) {
+            System.arraycopy(next.items, 0, node.items, node.count, next.count);
+            node.count += next.count;
+            unlink(next);
+        }
+        finger = node;
+        fingerStart = start;
+    }
+
+    private void linkBetween(Node<E> before, Node<E> node, Node<E> after) {
+        node.prev = before;
+        node.next = after;
+        if (before == null) {
+            head = node;
+        } else {
+            before.next = node;
+        }
+        if (after == null) {
+            tail = node;
+        } else {
+            after.prev = node;
+        }
+    }
+
+    private void unlink(Node<E> node) {
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+    }
+
+    private Object[] copyInto(Object[] array) {
+        int index = 0;
+        for (Node<E> node = head; node != null; node = node.next) {
+            System.arraycopy(node.items, 0, array, index, node.count);
+            index += node.count;
+        }
+        return array;
+    }
 
+    private void checkElementIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private void checkPositionIndex(int index) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * A list iterator that walks the node arrays and keeps its node and offset in
+     * step with its index. Modifications through the iterator go through the list
+     * and then find the position again, which the finger makes O(1).
+     */
+    private class ListItr implements ListIterator<E> {
+        // The node and offset of the element returned by next(), or null at the end.
+        private Node<E> node;
+        private int offset;
+        private int cursor;
+        private int lastReturned = -1;
+        private int expectedModCount = modCount;
+
+        ListItr(int index) {
+            moveTo(index);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < size;
+        }
+
+        @Override
+        public E next() {
+            checkForComodification();
+            if (cursor >= size) {
+                throw new NoSuchElementException();
+            }
+            E item = node.item(offset++);
+            if (offset == node.count) {
+                node = node.next;
+                offset = 0;
+            }
+            lastReturned = cursor++;
+            return item;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return cursor > 0;
+        }
+
+        @Override
+        public E previous() {
+            checkForComodification();
+            if (cursor == 0) {
+                throw new NoSuchElementException();
+            }
+            if (node == null) {
+                node = tail;
+                offset = tail.count;
+            }
+            if (offset == 0) {
+                node = node.prev;
+                offset = node.count;
+            }
+            lastReturned = --cursor;
+            return node.item(--offset);
+        }
+
+        @Override
+        public int nextIndex() {
+            return cursor;
+        }
+
+        @Override
+        public int previousIndex() {
+            return cursor - 1;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned < 0) {
+                throw new IllegalStateException();
+            }
+            checkForComodification();
+            CustomLinkedList.this.remove(lastReturned);
+            if (lastReturned < cursor) {
+                cursor--;
+            }
+            lastReturned = -1;
+            expectedModCount = modCount;
+            moveTo(cursor);
+        }
+
+        @Override
+        public void set(E e) {
+            if (lastReturned < 0) {
+                throw new IllegalStateException();
+            }
+            checkForComodification();
+            CustomLinkedList.this.set(lastReturned, e);
+        }
+
+        @Override
+        public void add(E e) {
+            checkForComodification();
+            CustomLinkedList.this.add(cursor, e);
+            lastReturned = -1;
+            expectedModCount = modCount;
+            moveTo(cursor + 1);
+        }
+
+        private void moveTo(int index) {
+            cursor = index;
+            if (index == size) {
+                node = null;
+                offset = 0;
+            } else {
+                node = node(index);
+                offset = index - fingerStart;
+            }
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /**
+     * A spliterator over a run of elements that starts at a node and offset. It binds
+     * to the list on first use and splits off prefixes of whole nodes.
+     */
+    private static final class NodeSpliterator<E> implements Spliterator<E> {
+        private final CustomLinkedList<E> list;
+        private Node<E> node;
+        private int offset;
+        // The number of elements left, or -1 before binding.
+        private int remaining;
+        private int expectedModCount;
+
+        NodeSpliterator(CustomLinkedList<E> list, Node<E> node, int offset, int remaining, int expectedModCount) {
+            this.list = list;
+            this.node = node;
+            this.offset = offset;
+            this.remaining = remaining;
+            this.expectedModCount = expectedModCount;
+        }
+
+        private int bind() {
+            if (remaining < 0) {
+                node = list.head;
+                offset = 0;
+                remaining = list.size;
+                expectedModCount = list.modCount;
+            }
+            return remaining;
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            int half = bind() / 2;
+            if (half < NODE_CAPACITY) {
+                return null;
+            }
+            Node<E> start = node;
+            int startOffset = offset;
+            int skipped = 0;
+            while (skipped + node.count - offset <= half) {
+                skipped += node.count - offset;
+                node = node.next;
+                offset = 0;
+            }
+            remaining -= skipped;
+            return new NodeSpliterator<>(list, start, startOffset, skipped, expectedModCount);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            if (bind() == 0) {
+                return false;
+            }
+            E item = node.item(offset++);
+            if (offset == node.count) {
+                node = node.next;
+                offset = 0;
+            }
+            remaining--;
+            action.accept(item);
+            if (list.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            int left = bind();
+            while (left > 0) {
+                int end = Math.min(node.count, offset + left);
+                for (int i = offset; i < end; i++) {
+                    action.accept(node.item(i));
+                }
+                left -= end - offset;
+                if (left > 0) {
+                    node = node.next;
+                    offset = 0;
+                } else {
+                    offset = end;
+                }
+            }
+            remaining = 0;
+            if (list.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return bind();
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
 }
@@ -0,0 +1,53 @@
+package edu.arsw.oodesing;
+
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+/**
+ * A growable list of primitive double values.
+ * Unlike a List of Double, it stores each value in 8 bytes, without a boxed
+ * object and a reference per element, and reads them without unboxing.
+ */
+public interface DoubleList {
+
+    /**
+     * Appends the specified value to the end of this list.
+     *
+     * @param value value to be appended to this list.
+     */
+    void add(double value);
+
+    /**
+     * Returns the value at the specified position in this list.
+     *
+     * @param index index of the value to return.
+     * @return the value at the specified position in this list.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    double get(int index);
+
+    /**
+     * Returns the number of values in this list.
+     *
+     * @return the number of values in this list.
+     */
+    int size();
+
+    /**
+     * Returns true if this list contains no values.
+     *
+     * @return true if this list contains no values.
+     */
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns a sequential stream over the values of this list.
+     *
+     * @return a stream of the values in proper sequence.
+     */
+    default DoubleStream stream() {
+        return IntStream.range(0, size()).mapToDouble(this::get);
+    }
+}
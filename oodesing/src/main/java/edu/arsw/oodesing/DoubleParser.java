@@ -0,0 +1,169 @@
+package edu.arsw.oodesing;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses decimal numbers directly from ASCII bytes, without creating Strings and
+ * without throwing exceptions for malformed input.
+ * <p>
+ * The accepted syntax is an optional sign, digits with an optional decimal point,
+ * and an optional exponent, surrounded by optional whitespace, plus the words
+ * NaN and Infinity. Numbers with at most 15 significant digits and a power of ten
+ * up to 22 (nearly every value found in data files) are computed exactly with a
+ * single multiplication or division. Longer numbers, whose syntax was already
+ * validated, are handed to {@link Double#parseDouble} so they are still rounded
+ * correctly. Java-specific forms such as hexadecimal floats or the d and f
+ * suffixes are rejected.
+ * <p>
+ * An instance keeps the last parsed value, so it is not thread-safe; use one per
+ * thread.
+ */
+public final class DoubleParser {
+
+    /** The largest number of significant digits that always fits in a double exactly. */
+    private static final int MAX_FAST_DIGITS = 15;
+
+    /** Powers of ten that are exact doubles. */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private static final byte[] NAN = "NaN".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] INFINITY = "Infinity".getBytes(StandardCharsets.US_ASCII);
+
+    private double value;
+
+    /**
+     * Parses the bytes in the given range.
+     *
+     * @param bytes the array holding the text.
+     * @param from  the index of the first byte, inclusive.
+     * @param to    the index of the last byte, exclusive.
+     * @return true if the range holds a number, which is then available from
+     *         {@link #getValue()}; false if it does not.
+     */
+    public boolean parse(byte[] bytes, int from, int to) {
+        while (from < to && (bytes[from] & 0xFF) <= ' ') {
+            from++;
+        }
+        while (to > from && (bytes[to - 1] & 0xFF) <= ' ') {
+            to--;
+        }
+        if (from == to) {
+            return false;
+        }
+
+        int i = from;
+        boolean negative = bytes[i] == '-';
+        if (negative || bytes[i] == '+') {
+            i++;
+        }
+        if (i < to && (bytes[i] == 'N' || bytes[i] == 'I')) {
+            return parseWord(bytes, i, to, negative);
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean point = false;
+
+        for (; i < to; i++) {
+            int b = bytes[i];
+            if (b >= '0' && b <= '9') {
+                digits++;
+                if (mantissa == 0 && b == '0') {
+                    // Leading zeros are not significant.
+                    if (point) {
+                        exponent--;
+                    }
+                } else {
+                    significantDigits++;
+                    if (significantDigits <= MAX_FAST_DIGITS) {
+                        mantissa = mantissa * 10 + (b - '0');
+                        if (point) {
+                            exponent--;
+                        }
+                    } else if (!point) {
+                        exponent++;
+                    }
+                }
+            } else if (b == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+
+        if (i < to && (bytes[i] == 'e' || bytes[i] == 'E')) {
+            i++;
+            boolean negativeExponent = i < to && bytes[i] == '-';
+            if (i < to && (bytes[i] == '-' || bytes[i] == '+')) {
+                i++;
+            }
+            int start = i;
+            int written = 0;
+            for (; i < to && bytes[i] >= '0' && bytes[i] <= '9'; i++) {
+                if (written < 100_000) {
+                    written = written * 10 + (bytes[i] - '0');
+                }
+            }
+            if (i == start) {
+                return false;
+            }
+            exponent += negativeExponent ? -written : written;
+        }
+        if (i != to) {
+            return false;
+        }
+
+        if (significantDigits <= MAX_FAST_DIGITS && exponent >= -22 && exponent <= 22) {
+            double result = mantissa;
+            result = exponent < 0 ? result / POWERS_OF_TEN[-exponent] : result * POWERS_OF_TEN[exponent];
+            value = negative ? -result : result;
+        } else if (mantissa == 0) {
+            value = negative ? -0.0 : 0.0;
+        } else {
+            // The syntax is valid, so this cannot throw.
+            value = Double.parseDouble(new String(bytes, from, to - from, StandardCharsets.US_ASCII));
+        }
+        return true;
+    }
+
+    /**
+     * Returns the value of the last successful call to {@link #parse}.
+     *
+     * @return the parsed number.
+     */
+    public double getValue() {
+        return value;
+    }
+
+    private boolean parseWord(byte[] bytes, int from, int to, boolean negative) {
+        if (matches(bytes, from, to, NAN)) {
+            value = Double.NaN;
+            return true;
+        }
+        if (matches(bytes, from, to, INFINITY)) {
+            value = negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean matches(byte[] bytes, int from, int to, byte[] word) {
+        if (to - from != word.length) {
+            return false;
+        }
+        for (int i = 0; i < word.length; i++) {
+            if (bytes[from + i] != word[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
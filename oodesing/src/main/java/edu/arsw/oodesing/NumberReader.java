@@ -0,0 +1,118 @@
+package edu.arsw.oodesing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Reads files with one number per line straight from their bytes.
+ * Lines are found in a reusable buffer and parsed in place by a {@link DoubleParser},
+ * so no String is created per line and malformed lines are counted instead of
+ * throwing exceptions. Lines end at {@code \n}, {@code \r} or {@code \r\n}, as they
+ * did when the file was read with {@code Files.lines}. Blank lines are counted as
+ * invalid.
+ */
+public final class NumberReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private NumberReader() {
+        // Utility class with static methods only.
+    }
+
+    /**
+     * Reads a whole file and passes every number to the consumer.
+     *
+     * @param file     the file to read, with one number per line.
+     * @param consumer the receiver of the numbers, in file order.
+     * @return the number of lines that were not numbers.
+     * @throws IOException if the file cannot be read.
+     */
+    public static long read(Path file, DoubleConsumer consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return read(channel, 0, channel.size(), consumer);
+        }
+    }
+
+    /**
+     * Reads the lines of a byte range with positional reads, so several ranges of
+     * the same channel can be read at once. The range must start at the beginning
+     * of a line, after the whole {@code \r\n} of the previous one; its last line may
+     * end at the end of the range without a terminator.
+     * A line longer than the internal buffer is counted as invalid.
+     *
+     * @param channel  the channel of the file.
+     * @param start    the offset of the first byte of the range.
+     * @param end      the offset after the last byte of the range.
+     * @param consumer the receiver of the numbers, in file order.
+     * @return the number of lines that were not numbers.
+     * @throws IOException if the file cannot be read.
+     */
+    public static long read(FileChannel channel, long start, long end, DoubleConsumer consumer)
+            throws IOException {
+        DoubleParser parser = new DoubleParser();
+        byte[] bytes = new byte[BUFFER_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long invalidLines = 0;
+        int pending = 0;
+        boolean overlong = false;
+        boolean afterCarriageReturn = false;
+
+        for (long position = start; position < end; ) {
+            buffer.limit((int) Math.min(bytes.length, pending + (end - position)));
+            buffer.position(pending);
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            position += read;
+
+            int limit = pending + read;
+            int lineStart = 0;
+            for (int i = pending; i < limit; i++) {
+                byte b = bytes[i];
+                if (b == '\n' && afterCarriageReturn) {
+                    // The second half of a \r\n, whose line already ended at the \r.
+                    lineStart = i + 1;
+                    afterCarriageReturn = false;
+                } else if (b == '\n' || b == '\r') {
+                    afterCarriageReturn = b == '\r';
+                    if (overlong) {
+                        invalidLines++;
+                        overlong = false;
+                    } else if (parser.parse(bytes, lineStart, i)) {
+                        consumer.accept(parser.getValue());
+                    } else {
+                        invalidLines++;
+                    }
+                    lineStart = i + 1;
+                } else {
+                    afterCarriageReturn = false;
+                }
+            }
+
+            // Keep the unfinished line at the front of the buffer for the next read.
+            pending = limit - lineStart;
+            if (pending == bytes.length) {
+                overlong = true;
+                pending = 0;
+            } else {
+                System.arraycopy(bytes, lineStart, bytes, 0, pending);
+            }
+        }
+
+        if (overlong) {
+            invalidLines++;
+        } else if (pending > 0) {
+            if (parser.parse(bytes, 0, pending)) {
+                consumer.accept(parser.getValue());
+            } else {
+                invalidLines++;
+            }
+        }
+        return invalidLines;
+    }
+}
@@ -1,50 +1,176 @@
 package edu.arsw.oodesing;
 
-import org.springframework.boot.SpringApplication;
-import org.springframework.boot.autoconfigure.SpringBootApplication;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.DoubleConsumer;
 
-@SpringBootApplication
 public class OODesingApplication {
 
+    private static final int HISTOGRAM_BINS = 10;
+    private static final int HISTOGRAM_WIDTH = 40;
+
     public static void main(String[] args) {
-        SpringApplication.run(OODesingApplication.class, args);
+        String filePathString = null;
+        String storage = "array";
+        boolean quantiles = false;
+        char delimiter = ',';
+
+        for (String arg : args) {
+            if ("--off-heap".equals(arg)) {
+                storage = "off-heap";
+            } else if ("--linked".equals(arg)) {
+                storage = "linked";
+            } else if ("--stream".equals(arg)) {
+                storage = "stream";
+            } else if ("--parallel".equals(arg)) {
+                storage = "parallel";
+            } else if ("--quantiles".equals(arg)) {
+                quantiles = true;
+            } else if ("--columns".equals(arg)) {
+                storage = "columns";
+            } else if (arg.startsWith("--delimiter=") && arg.length() == "--delimiter=".length() + 1) {
+                delimiter = arg.charAt(arg.length() - 1);
+            } else {
+                filePathString = arg;
+            }
+        }
 
-        if (args.length == 0) {
+        if (filePathString == null) {
             System.err.println("Error: Please provide a file path as an argument.");
+            System.err.println("Usage: java -jar oodesing.jar <file.txt> [--stream | --parallel | --off-heap | --linked] [--quantiles]"
+                    + " | <file.csv> --columns [--delimiter=<c>]");
             System.exit(1);
         }
 
-        String filePathString = args[0];
         Path filePath = Paths.get(filePathString);
-
-        List<Double> numbers = new CustomLinkedList<>();
+        if ("columns".equals(storage)) {
+            analyzeColumns(filePath, filePathString, delimiter);
+            return;
+        }
         StatisticsCalculator calculator = new StatisticsCalculator();
 
-        try {
-            Files.lines(filePath).forEach(line -> {
-                try {
-                    numbers.add(Double.parseDouble(line.trim()));
-                } catch (NumberFormatException e) {
-                    System.err.println("Warning: Skipping invalid number in file: " + line);
+        StreamingStatistics statistics;
+        // The sketch is fed the same values as the statistics, in the same pass.
+        QuantileSketch sketch = quantiles ? new QuantileSketch() : null;
+
+        if ("parallel".equals(storage)) {
+            // The file is split at line boundaries and each range is read on its own core.
+            try {
+                ParallelStatistics.Result result = ParallelStatistics.compute(filePath,
+                        Runtime.getRuntime().availableProcessors(), quantiles);
+                statistics = result.statistics();
+                sketch = result.sketch();
+                if (result.invalidLines() > 0) {
+                    System.err.println("Warning: Skipped " + result.invalidLines() + " invalid lines in file.");
                 }
-            });
-        } catch (IOException e) {
+            } catch (IOException e) {
+                System.err.println("Error reading the file: " + e.getMessage());
+                System.exit(1);
+                return;
+            }
+        } else if ("stream".equals(storage)) {
+            // Nothing is stored: every value updates the statistics as it is read.
+            statistics = new StreamingStatistics();
+            readNumbers(filePath, sketch == null ? statistics : statistics.andThen(sketch));
+        } else if ("linked".equals(storage)) {
+            // The original design: every value boxed in a CustomLinkedList.
+            List<Double> numbers = new CustomLinkedList<>();
+            DoubleConsumer add = numbers::add;
+            readNumbers(filePath, sketch == null ? add : add.andThen(sketch));
+            statistics = calculator.summarize(numbers);
+        } else {
+            DoubleList numbers = "off-heap".equals(storage) ? new OffHeapDoubleList() : new ArrayDoubleList();
+            DoubleConsumer add = numbers::add;
+            readNumbers(filePath, sketch == null ? add : add.andThen(sketch));
+            statistics = calculator.summarize(numbers);
+        }
+
+        System.out.println("Data analysis for file: " + filePathString);
+        System.out.println("------------------------------------");
+        System.out.println("Numbers read: " + statistics.getCount());
+        System.out.printf("Mean: %.2f%n", statistics.getMean());
+        System.out.printf("Standard Deviation: %.2f%n", statistics.getStandardDeviation());
+        System.out.printf("Min: %.2f%n", statistics.getMin());
+        System.out.printf("Max: %.2f%n", statistics.getMax());
+
+        if (sketch != null && sketch.getCount() > 0) {
+            printQuantiles(sketch, statistics.getMin(), statistics.getMax());
+        }
+    }
+
+    /**
+     * Computes the statistics of every column of a delimited file in one pass and
+     * prints them as a table. Columns without any number, such as text columns, are
+     * left out.
+     */
+    private static void analyzeColumns(Path filePath, String filePathString, char delimiter) {
+        List<ColumnStatistics.Column> columns;
+        try {
+            columns = ColumnStatistics.compute(filePath, delimiter);
+        } catch (IOException | IllegalArgumentException e) {
             System.err.println("Error reading the file: " + e.getMessage());
             System.exit(1);
+            return;
         }
-        
-        double mean = calculator.calculateMean(numbers);
-        double stdDev = calculator.calculateStandardDeviation(numbers);
 
         System.out.println("Data analysis for file: " + filePathString);
         System.out.println("------------------------------------");
-        System.out.println("Numbers read: " + numbers.size());
-        System.out.printf("Mean: %.2f%n", mean);
-        System.out.printf("Standard Deviation: %.2f%n", stdDev);
+        System.out.printf("%-20s %12s %14s %14s %14s %14s%n", "Column", "Numbers read", "Mean",
+                "Std Dev", "Min", "Max");
+        for (ColumnStatistics.Column column : columns) {
+            StreamingStatistics statistics = column.statistics();
+            if (statistics.getCount() == 0) {
+                continue;
+            }
+            System.out.printf("%-20s %12d %14.2f %14.2f %14.2f %14.2f%n", column.name(), statistics.getCount(),
+                    statistics.getMean(), statistics.getStandardDeviation(), statistics.getMin(),
+                    statistics.getMax());
+            if (column.invalidValues() > 0) {
+                System.err.println("Warning: Skipped " + column.invalidValues() + " invalid values in column "
+                        + column.name() + ".");
+            }
+        }
+    }
+
+    /**
+     * Prints the main percentiles and a text histogram between the minimum and the maximum.
+     */
+    private static void printQuantiles(QuantileSketch sketch, double min, double max) {
+        System.out.printf("P50: %.2f%n", sketch.getQuantile(0.50));
+        System.out.printf("P95: %.2f%n", sketch.getQuantile(0.95));
+        System.out.printf("P99: %.2f%n", sketch.getQuantile(0.99));
+
+        if (!(max > min) || Double.isInfinite(max - min)) {
+            return;
+        }
+        long[] histogram = sketch.getHistogram(min, max, HISTOGRAM_BINS);
+        long largest = Arrays.stream(histogram).max().orElse(1);
+        double width = (max - min) / HISTOGRAM_BINS;
+
+        System.out.println("Histogram:");
+        for (int i = 0; i < histogram.length; i++) {
+            int bar = (int) (histogram[i] * HISTOGRAM_WIDTH / largest);
+            System.out.printf("  [%10.2f, %10.2f) %10d %s%n",
+                    min + i * width, min + (i + 1) * width, histogram[i], "#".repeat(bar));
+        }
+    }
+
+    /**
+     * Parses one number per line and passes each value to the given consumer.
+     * Lines that are not numbers are skipped and reported once at the end.
+     */
+    private static void readNumbers(Path filePath, DoubleConsumer consumer) {
+        try {
+            long invalidLines = NumberReader.read(filePath, consumer);
+            if (invalidLines > 0) {
+                System.err.println("Warning: Skipped " + invalidLines + " invalid lines in file.");
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading the file: " + e.getMessage());
+            System.exit(1);
+        }
     }
 }
@@ -0,0 +1,90 @@
+package edu.arsw.oodesing;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DoubleList stored outside of the Java heap, in direct buffers.
+ * Values are kept in fixed-size chunks that are allocated as the list grows, so
+ * nothing is ever copied and the garbage collector never scans or moves the data.
+ * This suits series too large to fit in the heap; the amount of off-heap memory is
+ * limited by the -XX:MaxDirectMemorySize option of the JVM. Direct memory is only
+ * released when the chunks are garbage collected, so a list that is filled again
+ * and again should be reused with {@link #clear()} rather than replaced.
+ */
+public class OffHeapDoubleList implements DoubleList {
+
+    /**
+     * The number of bits of an index that select a value inside a chunk.
+     */
+    private static final int CHUNK_BITS = 20;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final List<DoubleBuffer> chunks = new ArrayList<>();
+    private DoubleBuffer last;
+    private int size = 0;
+
+    /**
+     * Appends the specified value to the end of this list.
+     * A new chunk of 8 MB is allocated every 2^20 values, unless the list already
+     * held that many values before it was cleared.
+     *
+     * @param value value to be appended to this list.
+     */
+    @Override
+    public void add(double value) {
+        if (size == Integer.MAX_VALUE) {
+            throw new IllegalStateException("The list cannot hold more than " + Integer.MAX_VALUE + " values");
+        }
+        if ((size & CHUNK_MASK) == 0) {
+            int chunk = size >>> CHUNK_BITS;
+            if (chunk < chunks.size()) {
+                last = chunks.get(chunk);
+            } else {
+                last = ByteBuffer.allocateDirect(CHUNK_SIZE * Double.BYTES)
+                                 .order(ByteOrder.nativeOrder())
+                                 .asDoubleBuffer();
+                chunks.add(last);
+            }
+        }
+        last.put(size & CHUNK_MASK, value);
+        size++;
+    }
+
+    /**
+     * Returns the value at the specified position in this list.
+     *
+     * @param index index of the value to return.
+     * @return the value at the specified position in this list.
+     */
+    @Override
+    public double get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return chunks.get(index >>> CHUNK_BITS).get(index & CHUNK_MASK);
+    }
+
+    /**
+     * Removes all of the values from this list. The chunks stay allocated and are
+     * filled again by the next values, so no direct memory is allocated or zeroed
+     * until the list grows beyond its previous size.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Returns the number of values in this list.
+     *
+     * @return the number of values in this list.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,192 @@
+package edu.arsw.oodesing;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Computes the statistics of a file of numbers, one per line, on several threads.
+ * The file is split into byte ranges whose boundaries are moved to the start of the
+ * next line, so no line is split between two ranges. Each range is parsed by a
+ * {@link NumberReader} with its own positional reads and accumulated in its own
+ * {@link StreamingStatistics}, and the partial results are merged in file order at
+ * the end.
+ */
+public final class ParallelStatistics {
+
+    /**
+     * The number of ranges per thread; more ranges than threads balance the load
+     * when some parts of the file parse slower than others.
+     */
+    private static final int RANGES_PER_THREAD = 4;
+
+    /**
+     * The statistics of a file and the number of lines that were not numbers.
+     *
+     * @param statistics   the merged statistics of every valid line.
+     * @param sketch       the merged quantile sketch, or null if it was not requested.
+     * @param invalidLines the number of lines skipped because they were not numbers.
+     */
+    public record Result(StreamingStatistics statistics, QuantileSketch sketch, long invalidLines) {
+    }
+
+    private ParallelStatistics() {
+        // Utility class with static methods only.
+    }
+
+    /**
+     * Reads a file of numbers on the given number of threads.
+     *
+     * @param file    the file to read, with one number per line.
+     * @param threads the number of threads to use, at least one.
+     * @return the merged statistics and the count of invalid lines.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if threads is lower than one.
+     */
+    public static Result compute(Path file, int threads) throws IOException {
+        return compute(file, threads, false);
+    }
+
+    /**
+     * Reads a file of numbers on the given number of threads, optionally building a
+     * quantile sketch per range as well and merging them.
+     *
+     * @param file      the file to read, with one number per line.
+     * @param threads   the number of threads to use, at least one.
+     * @param quantiles true to also compute a {@link QuantileSketch} of the file.
+     * @return the merged statistics, the sketch if requested and the count of invalid lines.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if threads is lower than one.
+     */
+    public static Result compute(Path file, int threads, boolean quantiles) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads must be positive: " + threads);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] boundaries = split(channel, threads * RANGES_PER_THREAD);
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<Result>> chunks = new ArrayList<>();
+                for (int i = 0; i + 1 < boundaries.length; i++) {
+                    long start = boundaries[i];
+                    long end = boundaries[i + 1];
+                    chunks.add(pool.submit(() -> read(channel, start, end, quantiles)));
+                }
+
+                StreamingStatistics statistics = new StreamingStatistics();
+                QuantileSketch sketch = quantiles ? new QuantileSketch() : null;
+                long invalidLines = 0;
+                for (Future<Result> chunk : chunks) {
+                    Result result = chunk.get();
+                    statistics.merge(result.statistics());
+                    if (sketch != null) {
+                        sketch.merge(result.sketch());
+                    }
+                    invalidLines += result.invalidLines();
+                }
+                return new Result(statistics, sketch, invalidLines);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while reading " + file, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof UncheckedIOException unchecked) {
+                    throw unchecked.getCause();
+                }
+                throw new IOException("Failed to read " + file, e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Splits the file into ranges that start at the beginning of a line.
+     *
+     * @return the sorted, distinct start offsets of the ranges followed by the file size.
+     */
+    private static long[] split(FileChannel channel, int ranges) throws IOException {
+        long size = channel.size();
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+
+        for (int i = 1; i < ranges; i++) {
+            long boundary = nextLineStart(channel, size * i / ranges, size);
+            if (boundary > boundaries.get(boundaries.size() - 1) && boundary < size) {
+                boundaries.add(boundary);
+            }
+        }
+        boundaries.add(size);
+
+        return boundaries.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Finds the first line that starts at or after a position. Lines end at
+     * {@code \n}, {@code \r} or {@code \r\n}, as in {@link NumberReader}.
+     */
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        if (position == 0) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        long offset = position - 1;
+
+        while (offset < size) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b == '\n') {
+                    return offset + i + 1;
+                }
+                if (b == '\r') {
+                    // A \r\n must not be split, or the next range would start with an empty line.
+                    long next = offset + i + 1;
+                    return next < size && byteAt(channel, next, buffer, offset, read) == '\n' ? next + 1 : next;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    /**
+     * Returns the byte at a position, from the buffer if it was already read.
+     */
+    private static byte byteAt(FileChannel channel, long position, ByteBuffer buffer, long offset, int read)
+            throws IOException {
+        if (position < offset + read) {
+            return buffer.get((int) (position - offset));
+        }
+        ByteBuffer single = ByteBuffer.allocate(1);
+        return channel.read(single, position) == 1 ? single.get(0) : 0;
+    }
+
+    /**
+     * Parses the lines of one byte range into its own accumulators.
+     */
+    private static Result read(FileChannel channel, long start, long end, boolean quantiles) {
+        StreamingStatistics statistics = new StreamingStatistics();
+        QuantileSketch sketch = quantiles ? new QuantileSketch() : null;
+        try {
+            long invalidLines = NumberReader.read(channel, start, end,
+                    sketch == null ? statistics : statistics.andThen(sketch));
+            return new Result(statistics, sketch, invalidLines);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package edu.arsw.oodesing;
+
+import java.util.Arrays;
+import java.util.function.DoubleConsumer;
+
+/**
+ * A mergeable sketch that estimates quantiles and histograms of a series in bounded
+ * memory.
+ * <p>
+ * Values are counted in logarithmic buckets, as in an HDR histogram or DDSketch:
+ * bucket i holds the magnitudes in (g^(i-1), g^i] with g = (1 + a) / (1 - a), so
+ * every quantile is returned with a relative error of at most a (1% by default),
+ * whatever the distribution. Positive and negative values are kept in separate
+ * bucket arrays and zeros in a plain counter. Each array holds at most a fixed
+ * number of buckets; when a series spans more orders of magnitude than that, the
+ * buckets closest to zero are folded together, which only loses accuracy for the
+ * smallest magnitudes. Two sketches with the same accuracy can be merged exactly,
+ * so per-chunk sketches of a parallel read combine into the sketch of the file.
+ */
+public class QuantileSketch implements DoubleConsumer {
+
+    /** The default relative accuracy of the estimates. */
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+
+    /** The default maximum number of buckets for each sign. */
+    public static final int DEFAULT_MAX_BUCKETS = 2048;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    private final int maxBuckets;
+
+    private final Buckets positive = new Buckets();
+    private final Buckets negative = new Buckets();
+    private long zeroCount = 0;
+    private long count = 0;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Creates a sketch with 1% relative accuracy.
+     */
+    public QuantileSketch() {
+        this(DEFAULT_RELATIVE_ACCURACY, DEFAULT_MAX_BUCKETS);
+    }
+
+    /**
+     * Creates a sketch with the given accuracy and memory bound.
+     *
+     * @param relativeAccuracy the largest relative error of a quantile, between 0 and 1.
+     * @param maxBuckets       the largest number of buckets kept for each sign.
+     * @throws IllegalArgumentException if an argument is out of range.
+     */
+    public QuantileSketch(double relativeAccuracy, int maxBuckets) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("The relative accuracy must be between 0 and 1: " + relativeAccuracy);
+        }
+        if (maxBuckets < 1) {
+            throw new IllegalArgumentException("The number of buckets must be positive: " + maxBuckets);
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+        this.maxBuckets = maxBuckets;
+    }
+
+    /**
+     * Adds a value to the sketch. NaN values are ignored.
+     *
+     * @param value the value to add.
+     */
+    @Override
+    public void accept(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (value > Double.MIN_NORMAL) {
+            positive.add(index(value), 1);
+        } else if (value < -Double.MIN_NORMAL) {
+            negative.add(index(-value), 1);
+        } else {
+            zeroCount++;
+        }
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds all the values counted by another sketch to this one.
+     *
+     * @param other a sketch with the same relative accuracy; it is not modified.
+     * @return this sketch.
+     * @throws IllegalArgumentException if the accuracies differ.
+     */
+    public QuantileSketch merge(QuantileSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Cannot merge sketches with different accuracies");
+        }
+        positive.addAll(other.positive);
+        negative.addAll(other.negative);
+        zeroCount += other.zeroCount;
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    /**
+     * Returns the number of values added.
+     *
+     * @return the count of values.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Estimates the value below which a fraction of the series falls.
+     *
+     * @param quantile the fraction, between 0 and 1 (0.5 for the median, 0.99 for p99).
+     * @return the estimate, within the relative accuracy, or the exact minimum or maximum
+     *         for the first and last ranks; NaN if the sketch is empty.
+     * @throws IllegalArgumentException if the quantile is out of range.
+     */
+    public double getQuantile(double quantile) {
+        if (!(quantile >= 0 && quantile <= 1)) {
+            throw new IllegalArgumentException("The quantile must be between 0 and 1: " + quantile);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+
+        long rank = (long) (quantile * (count - 1));
+        if (rank == 0) {
+            return min;
+        }
+        if (rank == count - 1) {
+            return max;
+        }
+        long seen = 0;
+
+        for (int i = negative.counts.length - 1; i >= 0; i--) {
+            seen += negative.counts[i];
+            if (seen > rank) {
+                return clamp(-value(negative.offset + i));
+            }
+        }
+        seen += zeroCount;
+        if (seen > rank) {
+            return 0.0;
+        }
+        for (int i = 0; i < positive.counts.length; i++) {
+            seen += positive.counts[i];
+            if (seen > rank) {
+                return clamp(value(positive.offset + i));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Estimates how many values fall in each of a number of equal-width bins.
+     * Each bucket of the sketch is assigned whole to the bin holding its
+     * representative value; values outside the range go to the first or last bin.
+     *
+     * @param lower the lower bound of the first bin.
+     * @param upper the upper bound of the last bin, greater than lower.
+     * @param bins  the number of bins, at least one.
+     * @return the estimated count of each bin.
+     * @throws IllegalArgumentException if the range or the number of bins is invalid.
+     */
+    public long[] getHistogram(double lower, double upper, int bins) {
+        if (!(upper > lower) || bins < 1) {
+            throw new IllegalArgumentException("Invalid histogram range or bins: " + lower + ", " + upper + ", " + bins);
+        }
+        long[] histogram = new long[bins];
+        double width = (upper - lower) / bins;
+
+        for (int i = 0; i < negative.counts.length; i++) {
+            if (negative.counts[i] > 0) {
+                histogram[bin(clamp(-value(negative.offset + i)), lower, width, bins)] += negative.counts[i];
+            }
+        }
+        if (zeroCount > 0) {
+            histogram[bin(0.0, lower, width, bins)] += zeroCount;
+        }
+        for (int i = 0; i < positive.counts.length; i++) {
+            if (positive.counts[i] > 0) {
+                histogram[bin(clamp(value(positive.offset + i)), lower, width, bins)] += positive.counts[i];
+            }
+        }
+        return histogram;
+    }
+
+    private int index(double magnitude) {
+        return (int) Math.ceil(Math.log(magnitude) / logGamma);
+    }
+
+    /**
+     * Returns the value of a bucket that is within the relative accuracy of every
+     * magnitude the bucket holds.
+     */
+    private double value(int index) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+
+    private double clamp(double value) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static int bin(double value, double lower, double width, int bins) {
+        int bin = (int) ((value - lower) / width);
+        return Math.max(0, Math.min(bins - 1, bin));
+    }
+
+    /**
+     * A dense array of bucket counts for one sign, starting at a bucket index.
+     */
+    private final class Buckets {
+        private long[] counts = new long[0];
+        private int offset = 0;
+
+        void add(int index, long amount) {
+            if (counts.length == 0) {
+                counts = new long[1];
+                offset = index;
+            } else if (index < offset) {
+                if (offset + counts.length - index > maxBuckets) {
+                    // Fold the values closest to zero into the lowest bucket kept.
+                    index = Math.max(index, offset + counts.length - maxBuckets);
+                }
+                if (index < offset) {
+                    long[] grown = new long[offset + counts.length - index];
+                    System.arraycopy(counts, 0, grown, offset - index, counts.length);
+                    counts = grown;
+                    offset = index;
+                }
+            } else if (index >= offset + counts.length) {
+                int length = index - offset + 1;
+                if (length > maxBuckets) {
+                    collapseBelow(index - maxBuckets + 1);
+                    length = index - offset + 1;
+                }
+                counts = Arrays.copyOf(counts, length);
+            }
+            counts[index - offset] += amount;
+        }
+
+        void addAll(Buckets other) {
+            for (int i = 0; i < other.counts.length; i++) {
+                if (other.counts[i] > 0) {
+                    add(other.offset + i, other.counts[i]);
+                }
+            }
+        }
+
+        /**
+         * Moves the counts of every bucket below the given index into that bucket.
+         */
+        private void collapseBelow(int lowest) {
+            int shift = lowest - offset;
+            long folded = 0;
+            for (int i = 0; i < shift && i < counts.length; i++) {
+                folded += counts[i];
+            }
+            long[] kept = new long[Math.max(1, counts.length - shift)];
+            if (shift < counts.length) {
+                System.arraycopy(counts, shift, kept, 0, counts.length - shift);
+            }
+            kept[0] += folded;
+            counts = kept;
+            offset = lowest;
+        }
+    }
+}
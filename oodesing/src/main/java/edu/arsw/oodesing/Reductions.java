@@ -0,0 +1,123 @@
+package edu.arsw.oodesing;
+
+/**
+ * Reductions over a range of a primitive array, the building blocks of the
+ * statistics of values held in a double array.
+ * <p>
+ * Two backends are available. {@link #scalar()} uses plain loops and works on every
+ * JVM. {@link #best()} returns a backend built on the incubating Vector API, which
+ * processes as many values per instruction as the CPU's widest SIMD registers hold,
+ * when the {@code jdk.incubator.vector} module was added to the JVM with
+ * {@code --add-modules jdk.incubator.vector}; otherwise it falls back to the scalar
+ * one. The two backends may round sums differently, since the vector one adds the
+ * values in several interleaved partial sums.
+ * <p>
+ * Empty ranges have a sum of 0.0, a minimum of positive infinity and a maximum of
+ * negative infinity. A NaN in the range makes the sums, the minimum and the maximum
+ * NaN.
+ */
+public interface Reductions {
+
+    /**
+     * The system property that disables the vector backend when set to {@code false}.
+     */
+    String VECTOR_PROPERTY = "oodesing.vector";
+
+    /**
+     * Returns the sum of a range of values.
+     *
+     * @param values the array holding the values.
+     * @param from   the index of the first value, inclusive.
+     * @param to     the index of the last value, exclusive.
+     * @return the sum of the values.
+     */
+    double sum(double[] values, int from, int to);
+
+    /**
+     * Returns the sum of the squares of a range of values.
+     *
+     * @param values the array holding the values.
+     * @param from   the index of the first value, inclusive.
+     * @param to     the index of the last value, exclusive.
+     * @return the sum of the squared values.
+     */
+    double sumOfSquares(double[] values, int from, int to);
+
+    /**
+     * Returns the sum of the squared differences between a range of values and a
+     * given mean. Centering the values first avoids the cancellation errors of
+     * subtracting two large sums of squares.
+     *
+     * @param values the array holding the values.
+     * @param from   the index of the first value, inclusive.
+     * @param to     the index of the last value, exclusive.
+     * @param mean   the value subtracted from every value before squaring.
+     * @return the sum of the squared differences.
+     */
+    double sumOfSquaredDeviations(double[] values, int from, int to, double mean);
+
+    /**
+     * Returns the smallest of a range of values.
+     *
+     * @param values the array holding the values.
+     * @param from   the index of the first value, inclusive.
+     * @param to     the index of the last value, exclusive.
+     * @return the minimum, or positive infinity if the range is empty.
+     */
+    double min(double[] values, int from, int to);
+
+    /**
+     * Returns the largest of a range of values.
+     *
+     * @param values the array holding the values.
+     * @param from   the index of the first value, inclusive.
+     * @param to     the index of the last value, exclusive.
+     * @return the maximum, or negative infinity if the range is empty.
+     */
+    double max(double[] values, int from, int to);
+
+    /**
+     * Computes count, mean, standard deviation, minimum and maximum of a range in two
+     * passes: one for the sum, and one for the squared deviations from the mean.
+     * Backends may override it to compute the sum, minimum and maximum together.
+     *
+     * @param values the array holding the values.
+     * @param from   the index of the first value, inclusive.
+     * @param to     the index of the last value, exclusive.
+     * @return the statistics of the range.
+     */
+    default StreamingStatistics summarize(double[] values, int from, int to) {
+        int count = to - from;
+        if (count == 0) {
+            return new StreamingStatistics();
+        }
+        double mean = sum(values, from, to) / count;
+        return StreamingStatistics.of(count, mean, sumOfSquaredDeviations(values, from, to, mean),
+                min(values, from, to), max(values, from, to));
+    }
+
+    /**
+     * Returns the backend built on plain loops.
+     *
+     * @return the scalar backend.
+     */
+    static Reductions scalar() {
+        return ScalarReductions.INSTANCE;
+    }
+
+    /**
+     * Returns the vector backend when the Vector API module is present, the CPU has
+     * SIMD registers of at least two doubles and the {@value #VECTOR_PROPERTY} system
+     * property is not {@code false}; returns the scalar backend otherwise.
+     *
+     * @return the fastest backend available in this JVM.
+     */
+    static Reductions best() {
+        if (!"false".equalsIgnoreCase(System.getProperty(VECTOR_PROPERTY))
+                && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+                && VectorReductions.isSupported()) {
+            return VectorReductions.INSTANCE;
+        }
+        return scalar();
+    }
+}
@@ -0,0 +1,82 @@
+package edu.arsw.oodesing;
+
+/**
+ * The {@link Reductions} backend built on plain loops, used when the Vector API is
+ * not available.
+ */
+final class ScalarReductions implements Reductions {
+
+    static final ScalarReductions INSTANCE = new ScalarReductions();
+
+    private ScalarReductions() {
+        // Stateless; use INSTANCE.
+    }
+
+    @Override
+    public double sum(double[] values, int from, int to) {
+        double sum = 0.0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double sumOfSquares(double[] values, int from, int to) {
+        double sum = 0.0;
+        for (int i = from; i < to; i++) {
+            sum += values[i] * values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double sumOfSquaredDeviations(double[] values, int from, int to, double mean) {
+        double sum = 0.0;
+        for (int i = from; i < to; i++) {
+            double deviation = values[i] - mean;
+            sum += deviation * deviation;
+        }
+        return sum;
+    }
+
+    @Override
+    public double min(double[] values, int from, int to) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public double max(double[] values, int from, int to) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    /**
+     * Computes the sum, minimum and maximum in one loop, then the squared deviations.
+     */
+    @Override
+    public StreamingStatistics summarize(double[] values, int from, int to) {
+        int count = to - from;
+        if (count == 0) {
+            return new StreamingStatistics();
+        }
+        double sum = 0.0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            double value = values[i];
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        double mean = sum / count;
+        return StreamingStatistics.of(count, mean, sumOfSquaredDeviations(values, from, to, mean), min, max);
+    }
+}
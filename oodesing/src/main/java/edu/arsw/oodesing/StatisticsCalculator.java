@@ -3,16 +3,33 @@ package edu.arsw.oodesing;
 import java.util.List;
 
 /**
- * A utility class to perform statistical calculations using Java Streams and Lambdas.
- * This approach results in more concise and declarative code.
+ * A utility class to compute the mean, standard deviation and percentiles of a set
+ * of numbers.
+ * <p>
+ * Lists are read in a single pass: the standard deviation comes from a Welford
+ * {@link StreamingStatistics} accumulator, and percentiles come from a
+ * {@link QuantileSketch}, without sorting. Values held in an {@link ArrayDoubleList}
+ * or a double array are reduced by a {@link Reductions} backend instead, which uses
+ * SIMD instructions when the Vector API is available.
  */
 public class StatisticsCalculator {
 
+    private final Reductions reductions;
+
     /**
-     * Default constructor.
+     * Creates a calculator with the fastest reductions backend of this JVM.
      */
     public StatisticsCalculator() {
-        // Constructor is empty as this is a utility class.
+        this(Reductions.best());
+    }
+
+    /**
+     * Creates a calculator that reduces arrays with the given backend.
+     *
+     * @param reductions the backend for sums, minimum and maximum of arrays.
+     */
+    public StatisticsCalculator(Reductions reductions) {
+        this.reductions = reductions;
     }
     
     /**
@@ -35,7 +52,7 @@ public class StatisticsCalculator {
     }
 
     /**
-     * Calculates the sample standard deviation using the Stream API.
+     * Calculates the sample standard deviation in a single pass over the list.
      *
      * @param numbers A list of Double values.
      * @return The standard deviation. Returns 0.0 if the list has fewer than 2 elements.
@@ -44,16 +61,138 @@ public class StatisticsCalculator {
         if (numbers == null || numbers.size() < 2) {
             return 0.0;
         }
+        return summarize(numbers).getStandardDeviation();
+    }
 
-        double mean = calculateMean(numbers);
+    /**
+     * Calculates the mean (average) of a primitive list of numbers.
+     * The values are read directly as doubles, without boxing or unboxing.
+     *
+     * @param numbers A DoubleList of values.
+     * @return The mean of the numbers. Returns 0.0 if the list is empty.
+     */
+    public double calculateMean(DoubleList numbers) {
+        if (numbers == null || numbers.isEmpty()) {
+            return 0.0;
+        }
+        if (numbers instanceof ArrayDoubleList array) {
+            return reductions.sum(array.elements(), 0, array.size()) / array.size();
+        }
 
-        // First, we stream the numbers and for each one, we calculate the square of its difference from the mean.
-        // Then, we sum all those results.
-        double sumOfSquaredDifferences = numbers.stream()
-                                                .mapToDouble(Double::doubleValue)
-                                                .map(number -> Math.pow(number - mean, 2))
-                                                .sum();
+        double sum = 0.0;
+        for (int i = 0, n = numbers.size(); i < n; i++) {
+            sum += numbers.get(i);
+        }
+        return sum / numbers.size();
+    }
+
+    /**
+     * Calculates the sample standard deviation of a primitive list of numbers in a
+     * single pass.
+     *
+     * @param numbers A DoubleList of values.
+     * @return The standard deviation. Returns 0.0 if the list has fewer than 2 elements.
+     */
+    public double calculateStandardDeviation(DoubleList numbers) {
+        if (numbers == null || numbers.size() < 2) {
+            return 0.0;
+        }
+        return summarize(numbers).getStandardDeviation();
+    }
+
+    /**
+     * Computes count, mean, standard deviation, minimum and maximum in one pass.
+     *
+     * @param numbers A list of Double values.
+     * @return The accumulated statistics of the list.
+     */
+    public StreamingStatistics summarize(List<Double> numbers) {
+        StreamingStatistics statistics = new StreamingStatistics();
+        for (Double number : numbers) {
+            statistics.accept(number);
+        }
+        return statistics;
+    }
 
-        return Math.sqrt(sumOfSquaredDifferences / (numbers.size() - 1));
+    /**
+     * Computes count, mean, standard deviation, minimum and maximum in one pass.
+     * Array-backed lists are reduced directly by the backend instead.
+     *
+     * @param numbers A DoubleList of values.
+     * @return The accumulated statistics of the list.
+     */
+    public StreamingStatistics summarize(DoubleList numbers) {
+        if (numbers instanceof ArrayDoubleList array) {
+            return reductions.summarize(array.elements(), 0, array.size());
+        }
+        StreamingStatistics statistics = new StreamingStatistics();
+        for (int i = 0, n = numbers.size(); i < n; i++) {
+            statistics.accept(numbers.get(i));
+        }
+        return statistics;
+    }
+
+    /**
+     * Computes count, mean, standard deviation, minimum and maximum of an array with
+     * the reductions backend.
+     *
+     * @param numbers An array of values.
+     * @return The statistics of the array.
+     */
+    public StreamingStatistics summarize(double[] numbers) {
+        return reductions.summarize(numbers, 0, numbers.length);
+    }
+
+    /**
+     * Estimates a percentile of a list of numbers with a {@link QuantileSketch},
+     * without sorting the list.
+     *
+     * @param numbers    A list of Double values.
+     * @param percentile The percentile, between 0 and 100 (50 for the median).
+     * @return The estimate, within 1% of the exact value. Returns NaN if the list is empty.
+     */
+    public double calculatePercentile(List<Double> numbers, double percentile) {
+        QuantileSketch sketch = new QuantileSketch();
+        for (Double number : numbers) {
+            sketch.accept(number);
+        }
+        return sketch.getQuantile(percentile / 100);
+    }
+
+    /**
+     * Estimates a percentile of a primitive list of numbers with a
+     * {@link QuantileSketch}, without sorting the list.
+     *
+     * @param numbers    A DoubleList of values.
+     * @param percentile The percentile, between 0 and 100 (50 for the median).
+     * @return The estimate, within 1% of the exact value. Returns NaN if the list is empty.
+     */
+    public double calculatePercentile(DoubleList numbers, double percentile) {
+        return sketch(numbers).getQuantile(percentile / 100);
+    }
+
+    /**
+     * Estimates the median of a primitive list of numbers.
+     *
+     * @param numbers A DoubleList of values.
+     * @return The estimated median. Returns NaN if the list is empty.
+     */
+    public double calculateMedian(DoubleList numbers) {
+        return calculatePercentile(numbers, 50);
+    }
+
+    /**
+     * Builds a quantile sketch of a primitive list of numbers, from which any number
+     * of percentiles and histograms can then be read.
+     *
+     * @param numbers A DoubleList of values.
+     * @return The sketch of the list.
+     */
+    public QuantileSketch sketch(DoubleList numbers) {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0, n = numbers.size(); i < n; i++) {
+            sketch.accept(numbers.get(i));
+        }
+        return sketch;
     }
 }
@@ -0,0 +1,147 @@
+package edu.arsw.oodesing;
+
+import java.util.function.DoubleConsumer;
+
+/**
+ * A single-pass accumulator of count, mean, variance, minimum and maximum.
+ * Values are added one at a time with Welford's algorithm, which updates the mean
+ * and the sum of squared differences from it on every value. The whole series is
+ * never kept, so memory use is constant, and the result does not suffer from the
+ * cancellation errors of the naive sum-of-squares formula.
+ * Accumulators filled independently, for example one per chunk of a file, can be
+ * combined with {@link #merge(StreamingStatistics)}.
+ */
+public class StreamingStatistics implements DoubleConsumer {
+
+    private long count = 0;
+    private double mean = 0.0;
+    private double sumOfSquaredDifferences = 0.0;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Creates an accumulator from statistics computed elsewhere, for example by a
+     * {@link Reductions} backend over an array.
+     *
+     * @param count                   the number of values, at least one.
+     * @param mean                    the mean of the values.
+     * @param sumOfSquaredDifferences the sum of the squared differences from the mean.
+     * @param min                     the smallest value.
+     * @param max                     the largest value.
+     * @return an accumulator holding those statistics.
+     */
+    static StreamingStatistics of(long count, double mean, double sumOfSquaredDifferences, double min, double max) {
+        StreamingStatistics statistics = new StreamingStatistics();
+        statistics.count = count;
+        statistics.mean = mean;
+        statistics.sumOfSquaredDifferences = sumOfSquaredDifferences;
+        statistics.min = min;
+        statistics.max = max;
+        return statistics;
+    }
+
+    /**
+     * Adds a value to the statistics.
+     *
+     * @param value the value to add.
+     */
+    @Override
+    public void accept(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        sumOfSquaredDifferences += delta * (value - mean);
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Adds all the values of another accumulator to this one, as if they had been
+     * added here. The means and squared differences are combined with the parallel
+     * formula of Chan, Golub and LeVeque, so the merge is exact and takes constant time.
+     *
+     * @param other the statistics to merge into these; it is not modified.
+     * @return this accumulator.
+     */
+    public StreamingStatistics merge(StreamingStatistics other) {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            sumOfSquaredDifferences = other.sumOfSquaredDifferences;
+            min = other.min;
+            max = other.max;
+            return this;
+        }
+
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        sumOfSquaredDifferences += other.sumOfSquaredDifferences
+                + delta * delta * ((double) count * other.count / total);
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    /**
+     * Returns the number of values added.
+     *
+     * @return the count of values.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the mean of the values added.
+     *
+     * @return the mean, or 0.0 if no value was added.
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Returns the sample variance of the values added.
+     *
+     * @return the variance, or 0.0 if fewer than 2 values were added.
+     */
+    public double getVariance() {
+        return count < 2 ? 0.0 : sumOfSquaredDifferences / (count - 1);
+    }
+
+    /**
+     * Returns the sample standard deviation of the values added.
+     *
+     * @return the standard deviation, or 0.0 if fewer than 2 values were added.
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Returns the smallest value added.
+     *
+     * @return the minimum, or NaN if no value was added.
+     */
+    public double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    /**
+     * Returns the largest value added.
+     *
+     * @return the maximum, or NaN if no value was added.
+     */
+    public double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+}
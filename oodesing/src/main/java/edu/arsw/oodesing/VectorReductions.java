@@ -0,0 +1,146 @@
+package edu.arsw.oodesing;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The {@link Reductions} backend built on the incubating Vector API.
+ * <p>
+ * Every loop loads as many values as the preferred species holds (eight doubles on
+ * AVX-512), combines them lane by lane into vector accumulators, and reduces the
+ * lanes once at the end; the values left over after the last full vector are handled
+ * by a scalar tail. This class must only be loaded when the
+ * {@code jdk.incubator.vector} module is present, which {@link Reductions#best()}
+ * checks first.
+ */
+final class VectorReductions implements Reductions {
+
+    static final VectorReductions INSTANCE = new VectorReductions();
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private VectorReductions() {
+        // Stateless; use INSTANCE.
+    }
+
+    /**
+     * Returns whether the CPU holds more than one double per vector, below which
+     * the vector code is only slower than the scalar loops.
+     */
+    static boolean isSupported() {
+        return SPECIES.length() >= 2;
+    }
+
+    @Override
+    public double sum(double[] values, int from, int to) {
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        for (; i < bound; i += SPECIES.length()) {
+            sum = sum.add(DoubleVector.fromArray(SPECIES, values, i));
+        }
+        double result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            result += values[i];
+        }
+        return result;
+    }
+
+    @Override
+    public double sumOfSquares(double[] values, int from, int to) {
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector vector = DoubleVector.fromArray(SPECIES, values, i);
+            sum = vector.fma(vector, sum);
+        }
+        double result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            result += values[i] * values[i];
+        }
+        return result;
+    }
+
+    @Override
+    public double sumOfSquaredDeviations(double[] values, int from, int to, double mean) {
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector deviation = DoubleVector.fromArray(SPECIES, values, i).sub(mean);
+            sum = deviation.fma(deviation, sum);
+        }
+        double result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            double deviation = values[i] - mean;
+            result += deviation * deviation;
+        }
+        return result;
+    }
+
+    @Override
+    public double min(double[] values, int from, int to) {
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        DoubleVector min = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+        for (; i < bound; i += SPECIES.length()) {
+            min = min.min(DoubleVector.fromArray(SPECIES, values, i));
+        }
+        double result = min.reduceLanes(VectorOperators.MIN);
+        for (; i < to; i++) {
+            result = Math.min(result, values[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public double max(double[] values, int from, int to) {
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        DoubleVector max = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+        for (; i < bound; i += SPECIES.length()) {
+            max = max.max(DoubleVector.fromArray(SPECIES, values, i));
+        }
+        double result = max.reduceLanes(VectorOperators.MAX);
+        for (; i < to; i++) {
+            result = Math.max(result, values[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Computes the sum, minimum and maximum with one load per vector, then the
+     * squared deviations in a second pass.
+     */
+    @Override
+    public StreamingStatistics summarize(double[] values, int from, int to) {
+        int count = to - from;
+        if (count == 0) {
+            return new StreamingStatistics();
+        }
+        int i = from;
+        int bound = from + SPECIES.loopBound(count);
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        DoubleVector min = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+        DoubleVector max = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector vector = DoubleVector.fromArray(SPECIES, values, i);
+            sum = sum.add(vector);
+            min = min.min(vector);
+            max = max.max(vector);
+        }
+        double totalSum = sum.reduceLanes(VectorOperators.ADD);
+        double totalMin = min.reduceLanes(VectorOperators.MIN);
+        double totalMax = max.reduceLanes(VectorOperators.MAX);
+        for (; i < to; i++) {
+            totalSum += values[i];
+            totalMin = Math.min(totalMin, values[i]);
+            totalMax = Math.max(totalMax, values[i]);
+        }
+        double mean = totalSum / count;
+        return StreamingStatistics.of(count, mean, sumOfSquaredDeviations(values, from, to, mean),
+                totalMin, totalMax);
+    }
+}
@@ -1,13 +1,40 @@
 package edu.arsw.codelines;
 
 import org.junit.jupiter.api.Test;
+import edu.arsw.oodesing.ArrayDoubleList;
+import edu.arsw.oodesing.ColumnStatistics;
+import edu.arsw.oodesing.CustomLinkedList;
+import edu.arsw.oodesing.DoubleList;
+import edu.arsw.oodesing.DoubleParser;
+import edu.arsw.oodesing.NumberReader;
+import edu.arsw.oodesing.OffHeapDoubleList;
+import edu.arsw.oodesing.ParallelStatistics;
+import edu.arsw.oodesing.QuantileSketch;
+import edu.arsw.oodesing.Reductions;
 import edu.arsw.oodesing.StatisticsCalculator;
+import edu.arsw.oodesing.StreamingStatistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Spliterator;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
 /**
@@ -65,4 +92,574 @@ class CountLinesTest {
         assertEquals(expectedStdDev, actualStdDev, 0.01, "The calculated standard deviation for Column 2 should match the expected value.");
     }
 
+    @Test
+    @DisplayName("Test CustomLinkedList keeps order across many nodes")
+    void testCustomLinkedListAppendAndGet() {
+        List<Integer> list = new CustomLinkedList<>();
+        int count = 10_000;
+        for (int i = 0; i < count; i++) {
+            list.add(i);
+        }
+
+        assertEquals(count, list.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, list.get(i), "Sequential access should return the elements in order.");
+        }
+        assertEquals(5_000, list.get(5_000));
+        assertEquals(0, list.get(0));
+        assertEquals(count - 1, list.get(count - 1));
+
+        int expected = 0;
+        for (int value : list) {
+            assertEquals(expected++, value, "The iterator should return the elements in order.");
+        }
+        assertEquals(count, expected);
+    }
+
+    @Test
+    @DisplayName("Test CustomLinkedList rejects indexes out of bounds")
+    void testCustomLinkedListOutOfBounds() {
+        List<Double> list = new CustomLinkedList<>();
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(0));
+        list.add(1.0);
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(-1));
+        assertEquals(1.0, list.get(0));
+    }
+
+    @Test
+    @DisplayName("Test primitive lists give the same statistics as boxed lists")
+    void testDoubleListStatistics() {
+        List<Double> data = Arrays.asList(160.0, 591.0, 114.0, 229.0, 230.0, 270.0, 128.0, 1657.0, 624.0, 1503.0);
+        DoubleList array = new ArrayDoubleList(2);
+        DoubleList offHeap = new OffHeapDoubleList();
+        for (double value : data) {
+            array.add(value);
+            offHeap.add(value);
+        }
+
+        assertEquals(10, array.size());
+        assertEquals(10, offHeap.size());
+        assertEquals(1657.0, array.get(7));
+        assertEquals(1657.0, offHeap.get(7));
+        assertEquals(550.6, calculator.calculateMean(array), 0.01);
+        assertEquals(572.03, calculator.calculateStandardDeviation(array), 0.01);
+        assertEquals(550.6, calculator.calculateMean(offHeap), 0.01);
+        assertEquals(572.03, calculator.calculateStandardDeviation(offHeap), 0.01);
+        assertEquals(0.0, calculator.calculateMean(new ArrayDoubleList()));
+    }
+
+    @Test
+    @DisplayName("Test OffHeapDoubleList spans several chunks")
+    void testOffHeapDoubleListChunks() {
+        DoubleList list = new OffHeapDoubleList();
+        int count = 3_000_000;
+        for (int i = 0; i < count; i++) {
+            list.add(i);
+        }
+
+        assertEquals(count, list.size());
+        assertEquals(1_048_576.0, list.get(1_048_576));
+        assertEquals(count - 1.0, list.get(count - 1));
+        assertEquals((count - 1) / 2.0, calculator.calculateMean(list), 1e-6);
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(count));
+    }
+
+    @Test
+    @DisplayName("Test OffHeapDoubleList is refilled after clear")
+    void testOffHeapDoubleListClear() {
+        OffHeapDoubleList list = new OffHeapDoubleList();
+        for (int i = 0; i < 1_500_000; i++) {
+            list.add(i);
+        }
+
+        list.clear();
+        assertTrue(list.isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(0));
+        for (int i = 0; i < 2_500_000; i++) {
+            list.add(-i);
+        }
+
+        assertEquals(2_500_000, list.size());
+        assertEquals(-1_048_576.0, list.get(1_048_576));
+        assertEquals(-2_499_999.0, list.get(2_499_999));
+    }
+
+    @Test
+    @DisplayName("Test StreamingStatistics matches the two-pass results in one pass")
+    void testStreamingStatistics() {
+        List<Double> data = Arrays.asList(15.0, 69.9, 6.5, 22.4, 28.4, 65.9, 19.4, 198.7, 38.8, 138.2);
+        StreamingStatistics statistics = new StreamingStatistics();
+        data.forEach(statistics::accept);
+
+        assertEquals(10, statistics.getCount());
+        assertEquals(60.32, statistics.getMean(), 0.01);
+        assertEquals(62.26, statistics.getStandardDeviation(), 0.01);
+        assertEquals(6.5, statistics.getMin());
+        assertEquals(198.7, statistics.getMax());
+        assertEquals(62.26, calculator.summarize(data).getStandardDeviation(), 0.01);
+    }
+
+    @Test
+    @DisplayName("Test StreamingStatistics stays accurate with a large offset")
+    void testStreamingStatisticsLargeOffset() {
+        StreamingStatistics statistics = new StreamingStatistics();
+        for (int i = 0; i < 1000; i++) {
+            statistics.accept(1e9 + (i % 2 == 0 ? 1.0 : -1.0));
+        }
+
+        assertEquals(1e9, statistics.getMean(), 1e-6);
+        assertEquals(Math.sqrt(1000.0 / 999.0), statistics.getStandardDeviation(), 1e-6);
+        assertTrue(Double.isNaN(new StreamingStatistics().getMin()));
+        assertEquals(0.0, new StreamingStatistics().getStandardDeviation());
+    }
+
+    @Test
+    @DisplayName("Test merged accumulators equal a single accumulator")
+    void testStreamingStatisticsMerge() {
+        StreamingStatistics all = new StreamingStatistics();
+        StreamingStatistics left = new StreamingStatistics();
+        StreamingStatistics right = new StreamingStatistics();
+        for (int i = 0; i < 1000; i++) {
+            double value = Math.sin(i) * 100 + i;
+            all.accept(value);
+            (i < 300 ? left : right).accept(value);
+        }
+
+        left.merge(right).merge(new StreamingStatistics());
+
+        assertEquals(all.getCount(), left.getCount());
+        assertEquals(all.getMean(), left.getMean(), 1e-9);
+        assertEquals(all.getStandardDeviation(), left.getStandardDeviation(), 1e-9);
+        assertEquals(all.getMin(), left.getMin());
+        assertEquals(all.getMax(), left.getMax());
+    }
+
+    @Test
+    @DisplayName("Test parallel file statistics split at line boundaries")
+    void testParallelStatistics(@TempDir Path tempDir) throws IOException {
+        StringBuilder content = new StringBuilder();
+        StreamingStatistics expected = new StreamingStatistics();
+        for (int i = 0; i < 50_000; i++) {
+            double value = (i * 7919 % 10_007) / 10.0;
+            content.append(value).append(i % 3 == 0 ? "\r\n" : "\n");
+            expected.accept(value);
+            if (i % 10_000 == 0) {
+                content.append("not a number\n");
+            }
+        }
+        Path file = Files.writeString(tempDir.resolve("numbers.txt"), content.toString().trim());
+
+        ParallelStatistics.Result result = ParallelStatistics.compute(file, 4);
+
+        assertEquals(5, result.invalidLines());
+        assertEquals(expected.getCount(), result.statistics().getCount());
+        assertEquals(expected.getMean(), result.statistics().getMean(), 1e-9);
+        assertEquals(expected.getStandardDeviation(), result.statistics().getStandardDeviation(), 1e-9);
+        assertEquals(expected.getMax(), result.statistics().getMax());
+        assertEquals(1, ParallelStatistics.compute(Files.writeString(tempDir.resolve("one.txt"), "4.5"), 8)
+                .statistics().getCount());
+    }
+
+    @Test
+    @DisplayName("Test DoubleParser agrees with Double.parseDouble")
+    void testDoubleParser() {
+        DoubleParser parser = new DoubleParser();
+        String[] valid = { "0", "-0", "42", "  3.25\r", "+1.5", "-.5", "7.", "1e10", "1.5E-7", "123456789012345",
+            "1234567890123456789", "0.1", "0.30000000000000004", "1e-320", "1e400", "NaN", "-Infinity",
+            "0.0000000000000000000000001", "9007199254740993" };
+        for (String text : valid) {
+            byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+            assertTrue(parser.parse(bytes, 0, bytes.length), "Should parse: " + text);
+            assertEquals(Double.parseDouble(text), parser.getValue(), "Should match parseDouble: " + text);
+        }
+
+        String[] invalid = { "", "   ", "abc", ".", "-", "1e", "1.2.3", "12a", "1,5", "0x1p3", "1.5d", "NaNa" };
+        for (String text : invalid) {
+            byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+            assertFalse(parser.parse(bytes, 0, bytes.length), "Should reject: " + text);
+        }
+    }
+
+    @Test
+    @DisplayName("Test NumberReader counts invalid lines without exceptions")
+    void testNumberReader(@TempDir Path tempDir) throws IOException {
+        Path file = Files.writeString(tempDir.resolve("mixed.txt"), "1.5\r\nbad\n\n2.5\n" + "9".repeat(70_000)
+                + "\n-4");
+        StreamingStatistics statistics = new StreamingStatistics();
+
+        long invalidLines = NumberReader.read(file, statistics);
+
+        assertEquals(3, invalidLines);
+        assertEquals(3, statistics.getCount());
+        assertEquals(0.0, statistics.getMean(), 1e-12);
+        assertEquals(-4.0, statistics.getMin());
+    }
+
+    @Test
+    @DisplayName("Test NumberReader and ParallelStatistics end lines at a lone carriage return")
+    void testCarriageReturnLineEndings(@TempDir Path tempDir) throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            content.append(i % 100).append(i % 2 == 0 ? "\r" : "\r\n");
+        }
+        Path file = Files.writeString(tempDir.resolve("mac.txt"), content);
+        StreamingStatistics statistics = new StreamingStatistics();
+
+        assertEquals(0, NumberReader.read(Files.writeString(tempDir.resolve("cr.txt"), "1\r2\r3"), statistics));
+        assertEquals(3, statistics.getCount());
+        for (int threads : new int[] { 1, 3, 8 }) {
+            ParallelStatistics.Result result = ParallelStatistics.compute(file, threads);
+            assertEquals(0, result.invalidLines(), "Threads: " + threads);
+            assertEquals(20_000, result.statistics().getCount(), "Threads: " + threads);
+            assertEquals(49.5, result.statistics().getMean(), 1e-9);
+        }
+    }
+
+    @Test
+    @DisplayName("Test QuantileSketch percentiles stay within 1% of the exact values")
+    void testQuantileSketchAccuracy() {
+        QuantileSketch sketch = new QuantileSketch();
+        double[] values = new double[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp((i % 97) * 0.1) * (i + 1);
+            sketch.accept(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double quantile : new double[] { 0, 0.5, 0.95, 0.99, 1 }) {
+            double exact = values[(int) (quantile * (values.length - 1))];
+            assertEquals(exact, sketch.getQuantile(quantile), exact * 0.01, "Quantile " + quantile);
+        }
+        assertEquals(values.length, sketch.getCount());
+        assertTrue(Double.isNaN(new QuantileSketch().getQuantile(0.5)));
+    }
+
+    @Test
+    @DisplayName("Test QuantileSketch handles negative values and zeros")
+    void testQuantileSketchSigns() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = -50; i <= 50; i++) {
+            sketch.accept(i);
+        }
+
+        assertEquals(-50.0, sketch.getQuantile(0));
+        assertEquals(0.0, sketch.getQuantile(0.5));
+        assertEquals(-25.0, sketch.getQuantile(0.25), 0.25);
+        assertEquals(50.0, sketch.getQuantile(1));
+    }
+
+    @Test
+    @DisplayName("Test merged QuantileSketches match a single sketch")
+    void testQuantileSketchMerge() {
+        QuantileSketch whole = new QuantileSketch();
+        QuantileSketch left = new QuantileSketch();
+        QuantileSketch right = new QuantileSketch();
+        for (int i = 1; i <= 1_000; i++) {
+            whole.accept(i * 1.5);
+            (i % 3 == 0 ? left : right).accept(i * 1.5);
+        }
+
+        left.merge(right);
+
+        assertEquals(whole.getCount(), left.getCount());
+        for (double quantile : new double[] { 0.1, 0.5, 0.9, 0.99 }) {
+            assertEquals(whole.getQuantile(quantile), left.getQuantile(quantile));
+        }
+        assertThrows(IllegalArgumentException.class, () -> left.merge(new QuantileSketch(0.05, 100)));
+    }
+
+    @Test
+    @DisplayName("Test QuantileSketch keeps its memory bound over a huge range")
+    void testQuantileSketchBound() {
+        // At 1% accuracy 1000 buckets cover about eight orders of magnitude.
+        QuantileSketch sketch = new QuantileSketch(0.01, 1_000);
+        for (int exponent = -300; exponent <= 300; exponent++) {
+            sketch.accept(Math.pow(10, exponent));
+        }
+
+        // The smallest values are folded together, the largest keep their accuracy.
+        assertEquals(601, sketch.getCount());
+        assertEquals(1e300, sketch.getQuantile(1));
+        assertEquals(1e299, sketch.getQuantile(599.0 / 600), 1e299 * 0.01);
+        assertEquals(1e295, sketch.getQuantile(595.0 / 600), 1e295 * 0.01);
+        assertTrue(sketch.getQuantile(0) <= sketch.getQuantile(0.5));
+    }
+
+    @Test
+    @DisplayName("Test QuantileSketch histogram accounts for every value")
+    void testQuantileSketchHistogram() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < 1_000; i++) {
+            sketch.accept(i);
+        }
+
+        long[] histogram = sketch.getHistogram(0, 1_000, 10);
+
+        assertEquals(1_000, Arrays.stream(histogram).sum());
+        for (long bin : histogram) {
+            assertEquals(100, bin, 10);
+        }
+    }
+
+    @Test
+    @DisplayName("Test ParallelStatistics merges per-range quantile sketches")
+    void testParallelQuantiles(@TempDir Path tempDir) throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 1; i <= 10_000; i++) {
+            content.append(i).append('\n');
+        }
+        Path file = Files.writeString(tempDir.resolve("numbers.txt"), content);
+
+        ParallelStatistics.Result result = ParallelStatistics.compute(file, 4, true);
+
+        assertEquals(10_000, result.sketch().getCount());
+        assertEquals(5_000, result.sketch().getQuantile(0.5), 50);
+        assertEquals(9_900, result.sketch().getQuantile(0.99), 99);
+        assertEquals(null, ParallelStatistics.compute(file, 2).sketch());
+    }
+
+    @Test
+    @DisplayName("Test CustomLinkedList matches ArrayList under random edits")
+    void testCustomLinkedListRandomEdits() {
+        List<Integer> expected = new ArrayList<>();
+        List<Integer> list = new CustomLinkedList<>();
+        Random random = new Random(17);
+
+        for (int step = 0; step < 20_000; step++) {
+            int operation = random.nextInt(6);
+            if (operation < 2 || expected.isEmpty()) {
+                int index = random.nextInt(expected.size() + 1);
+                expected.add(index, step);
+                list.add(index, step);
+            } else if (operation == 2) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), list.remove(index));
+            } else if (operation == 3) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.set(index, -step), list.set(index, -step));
+            } else if (operation == 4) {
+                int index = random.nextInt(expected.size() + 1);
+                List<Integer> batch = Collections.nCopies(random.nextInt(150), step);
+                expected.addAll(index, batch);
+                list.addAll(index, batch);
+            } else {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.get(index), list.get(index));
+            }
+        }
+
+        assertEquals(expected, list);
+        assertEquals(expected.size(), list.size());
+        assertEquals(expected.hashCode(), list.hashCode());
+    }
+
+    @Test
+    @DisplayName("Test CustomLinkedList bulk operations and searches")
+    void testCustomLinkedListBulkOperations() {
+        List<Integer> list = new CustomLinkedList<>();
+        List<Integer> source = new LinkedList<>();
+        for (int i = 0; i < 300; i++) {
+            source.add(i % 100);
+        }
+
+        assertTrue(list.addAll(source));
+        assertTrue(list.addAll(list));
+        assertFalse(list.addAll(Collections.emptyList()));
+        assertEquals(600, list.size());
+        assertEquals(5, list.indexOf(5));
+        assertEquals(505, list.lastIndexOf(5));
+        assertEquals(-1, list.indexOf(100));
+        assertTrue(list.contains(99));
+
+        Object[] array = list.toArray();
+        assertEquals(600, array.length);
+        assertEquals(list, Arrays.asList(array));
+        Integer[] typed = list.toArray(new Integer[0]);
+        assertEquals(600, typed.length);
+        Integer[] larger = list.toArray(new Integer[601]);
+        assertEquals(null, larger[600]);
+
+        assertTrue(list.removeIf(value -> value % 2 == 0));
+        assertEquals(300, list.size());
+        assertTrue(list.retainAll(List.of(1, 3)));
+        assertEquals(List.of(1, 3, 1, 3, 1, 3, 1, 3, 1, 3, 1, 3), list);
+        assertTrue(list.remove(Integer.valueOf(3)));
+        assertTrue(list.removeAll(List.of(1)));
+        assertEquals(List.of(3, 3, 3, 3, 3), list);
+
+        list.subList(1, 4).clear();
+        assertEquals(List.of(3, 3), list);
+        list.clear();
+        assertTrue(list.isEmpty());
+        list.add(7);
+        assertEquals(List.of(7), list);
+    }
+
+    @Test
+    @DisplayName("Test CustomLinkedList list iterator and fail-fast behavior")
+    void testCustomLinkedListIterators() {
+        List<Integer> list = new CustomLinkedList<>();
+        for (int i = 0; i < 200; i++) {
+            list.add(i);
+        }
+
+        ListIterator<Integer> iterator = list.listIterator(list.size());
+        int expected = 199;
+        while (iterator.hasPrevious()) {
+            assertEquals(expected--, iterator.previous());
+        }
+        assertThrows(NoSuchElementException.class, iterator::previous);
+
+        for (ListIterator<Integer> it = list.listIterator(); it.hasNext(); ) {
+            int value = it.next();
+            if (value % 3 == 0) {
+                it.remove();
+            } else if (value % 3 == 1) {
+                it.set(-value);
+            } else {
+                it.add(1_000);
+            }
+        }
+        assertEquals(-1, list.get(0));
+        assertEquals(1_000, list.get(2));
+        assertEquals(200 - 67 + 66, list.size());
+
+        list.sort(null);
+        assertEquals(-199, list.get(0));
+        assertEquals(1_000, list.get(list.size() - 1));
+
+        Iterator<Integer> failing = list.iterator();
+        failing.next();
+        list.add(5);
+        assertThrows(ConcurrentModificationException.class, failing::next);
+        assertThrows(ConcurrentModificationException.class, () -> list.forEach(value -> list.remove(0)));
+    }
+
+    @Test
+    @DisplayName("Test CustomLinkedList splits for parallel streams")
+    void testCustomLinkedListSpliterator() {
+        List<Integer> list = new CustomLinkedList<>();
+        for (int i = 1; i <= 100_000; i++) {
+            list.add(i);
+        }
+
+        Spliterator<Integer> whole = list.spliterator();
+        Spliterator<Integer> prefix = whole.trySplit();
+        assertEquals(100_000, prefix.estimateSize() + whole.estimateSize());
+        assertEquals(0, prefix.estimateSize() % 64);
+        assertTrue(whole.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+
+        assertEquals(5_000_050_000L, list.parallelStream().mapToLong(Integer::longValue).sum());
+        assertEquals(list, list.parallelStream().toList());
+        assertEquals(100_000, list.stream().skip(10).count() + 10);
+    }
+
+    @Test
+    @DisplayName("Test vector and scalar Reductions agree on every range")
+    void testReductionsBackendsAgree() {
+        Reductions scalar = Reductions.scalar();
+        Reductions best = Reductions.best();
+        Random random = new Random(18);
+        double[] values = new double[1_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextGaussian() * 1_000;
+        }
+
+        for (int from : new int[] { 0, 1, 7 }) {
+            for (int to : new int[] { from, from + 3, from + 8, from + 17, 1_000 }) {
+                double sum = scalar.sum(values, from, to);
+                assertEquals(sum, best.sum(values, from, to), 1e-9 * (to - from + 1) * 1_000);
+                assertEquals(scalar.sumOfSquares(values, from, to), best.sumOfSquares(values, from, to),
+                        1e-9 * scalar.sumOfSquares(values, from, to) + 1e-9);
+                assertEquals(scalar.min(values, from, to), best.min(values, from, to));
+                assertEquals(scalar.max(values, from, to), best.max(values, from, to));
+                assertEquals(scalar.summarize(values, from, to).getStandardDeviation(),
+                        best.summarize(values, from, to).getStandardDeviation(), 1e-9);
+            }
+        }
+        assertEquals(Double.POSITIVE_INFINITY, best.min(values, 5, 5));
+        assertEquals(0, best.summarize(values, 5, 5).getCount());
+    }
+
+    @Test
+    @DisplayName("Test Reductions falls back to scalar loops when disabled")
+    void testReductionsFallback() {
+        System.setProperty(Reductions.VECTOR_PROPERTY, "false");
+        try {
+            assertEquals(Reductions.scalar(), Reductions.best());
+        } finally {
+            System.clearProperty(Reductions.VECTOR_PROPERTY);
+        }
+    }
+
+    @Test
+    @DisplayName("Test StatisticsCalculator reduces array lists with its backend")
+    void testStatisticsCalculatorReductions() {
+        ArrayDoubleList numbers = new ArrayDoubleList();
+        StreamingStatistics expected = new StreamingStatistics();
+        for (int i = 0; i < 10_001; i++) {
+            double value = Math.sin(i) * 50 + 1e6;
+            numbers.add(value);
+            expected.accept(value);
+        }
+
+        for (StatisticsCalculator calculator : List.of(new StatisticsCalculator(),
+                new StatisticsCalculator(Reductions.scalar()))) {
+            StreamingStatistics statistics = calculator.summarize(numbers);
+            assertEquals(expected.getCount(), statistics.getCount());
+            assertEquals(expected.getMean(), statistics.getMean(), 1e-6);
+            assertEquals(expected.getStandardDeviation(), statistics.getStandardDeviation(), 1e-9);
+            assertEquals(expected.getMin(), statistics.getMin());
+            assertEquals(expected.getMax(), statistics.getMax());
+            assertEquals(expected.getMean(), calculator.calculateMean(numbers), 1e-6);
+            assertEquals(expected.getStandardDeviation(), calculator.summarize(numbers.toArray())
+                    .getStandardDeviation(), 1e-9);
+        }
+    }
+
+    @Test
+    @DisplayName("Test ColumnStatistics computes every column in one pass")
+    void testColumnStatistics(@TempDir Path tempDir) throws IOException {
+        Path file = Files.writeString(tempDir.resolve("export.csv"), "\uFEFFid,\"name, full\",price,qty\r\n"
+                + "1,\"Ann, \"\"A\"\"\",10.5,3\r\n"
+                + "2,Bob,,5\r\n"
+                + "\r\n"
+                + "3,\"Cy\",12.5,n/a,7");
+
+        List<ColumnStatistics.Column> columns = ColumnStatistics.compute(file);
+
+        assertEquals(List.of("id", "name, full", "price", "qty", "column 5"),
+                columns.stream().map(ColumnStatistics.Column::name).toList());
+        assertEquals(2.0, columns.get(0).statistics().getMean(), 1e-12);
+        assertEquals(0, columns.get(1).statistics().getCount());
+        assertEquals(3, columns.get(1).invalidValues());
+        assertEquals(11.5, columns.get(2).statistics().getMean(), 1e-12);
+        assertEquals(Math.sqrt(2), columns.get(2).statistics().getStandardDeviation(), 1e-12);
+        assertEquals(1, columns.get(2).invalidValues());
+        assertEquals(4.0, columns.get(3).statistics().getMean(), 1e-12);
+        assertEquals(1, columns.get(3).invalidValues());
+        assertEquals(7.0, columns.get(4).statistics().getMax());
+    }
+
+    @Test
+    @DisplayName("Test ColumnStatistics without a header and with another delimiter")
+    void testColumnStatisticsWithoutHeader(@TempDir Path tempDir) throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 1; i <= 5_000; i++) {
+            content.append(i).append(';').append(-i * 0.5).append(';').append("\"").append(i % 2).append("\"\n");
+        }
+        Path file = Files.writeString(tempDir.resolve("data.csv"), content);
+
+        List<ColumnStatistics.Column> columns = ColumnStatistics.compute(file, ';');
+
+        assertEquals(3, columns.size());
+        assertEquals("column 1", columns.get(0).name());
+        assertEquals(2_500.5, columns.get(0).statistics().getMean(), 1e-9);
+        assertEquals(-1_250.25, columns.get(1).statistics().getMean(), 1e-9);
+        assertEquals(0.5, columns.get(2).statistics().getMean(), 1e-12);
+        assertEquals(5_000, columns.get(2).statistics().getCount());
+        assertThrows(IllegalArgumentException.class, () -> ColumnStatistics.compute(file, '"'));
+    }
+
 }